@@ -16,16 +16,20 @@
 
 package link.infra.indium;
 
+import link.infra.indium.other.RouteOverrides;
 import link.infra.indium.other.SpriteFinderCache;
+import link.infra.indium.other.StateIdCounter;
 import link.infra.indium.renderer.IndiumRenderer;
 import link.infra.indium.renderer.aocalc.AoConfig;
 import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.api.event.registry.RegistryIdRemapCallback;
 import net.fabricmc.fabric.api.renderer.v1.RendererAccess;
 import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
 import net.fabricmc.fabric.api.util.TriState;
 import net.fabricmc.loader.api.FabricLoader;
 import net.fabricmc.loader.api.ModContainer;
 import net.minecraft.resource.ResourceType;
+import net.minecraft.util.registry.Registry;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -46,6 +50,24 @@ public class Indium implements ClientModInitializer {
 	public static final boolean FIX_SMOOTH_LIGHTING_OFFSET;
 	public static final boolean FIX_EXTERIOR_VERTEX_LIGHTING;
 	public static final boolean FIX_LUMINOUS_AO_SHADE;
+	/** Reuse colored item quads across frames. Only correct for models whose quads depend on nothing but the stack. */
+	public static final boolean CACHE_ITEM_QUADS;
+	/** Reuse colors of {@link link.infra.indium.api.PureItemColorProvider}s across frames. */
+	public static final boolean CACHE_PURE_ITEM_TINTS;
+	/** Detect block models that emit the same quads everywhere, and replay their quads instead of calling them. */
+	public static final boolean MEMOIZE_STATIC_MODELS;
+	/** Hand static models (see {@link #MEMOIZE_STATIC_MODELS}) that only use vanilla features to Sodium's block renderer. */
+	public static final boolean LOWER_STATIC_MESHES;
+	/** Cull quads lying on a block face without a declared cull face, as if they had one. */
+	public static final boolean INFER_CULL_FACES;
+	/** Move translucent quads to cutout or solid layers when their sprite has no semi-transparent pixels. */
+	public static final boolean DEMOTE_TRANSLUCENT_LAYER;
+	/** Replay the previous output of blocks whose neighborhood didn't change when rebuilding a chunk section. */
+	public static final boolean CACHE_BLOCK_OUTPUT;
+	/** Hand models that only pass another model to the fallback consumer to Sodium, as that model. */
+	public static final boolean PROMOTE_FORWARDING_MODELS;
+	/** Per-block choice of renderer, from a separate file as keys are block ids and class names. */
+	public static final RouteOverrides ROUTE_OVERRIDES;
 
 	public static final Logger LOGGER = LogManager.getLogger();
 
@@ -110,12 +132,22 @@ public class Indium implements ClientModInitializer {
 		FIX_SMOOTH_LIGHTING_OFFSET = asBoolean((String) properties.computeIfAbsent("fix-smooth-lighting-offset", (a) -> "auto"), true);
 		FIX_EXTERIOR_VERTEX_LIGHTING = asBoolean((String) properties.computeIfAbsent("fix-exterior-vertex-lighting", (a) -> "auto"), true);
 		FIX_LUMINOUS_AO_SHADE = asBoolean((String) properties.computeIfAbsent("fix-luminous-block-ambient-occlusion", (a) -> "auto"), false);
+		CACHE_ITEM_QUADS = asBoolean((String) properties.computeIfAbsent("cache-item-quads", (a) -> "auto"), false);
+		CACHE_PURE_ITEM_TINTS = asBoolean((String) properties.computeIfAbsent("cache-pure-item-tints", (a) -> "auto"), false);
+		MEMOIZE_STATIC_MODELS = asBoolean((String) properties.computeIfAbsent("memoize-static-models", (a) -> "auto"), false);
+		LOWER_STATIC_MESHES = asBoolean((String) properties.computeIfAbsent("lower-static-meshes", (a) -> "auto"), false);
+		INFER_CULL_FACES = asBoolean((String) properties.computeIfAbsent("infer-cull-faces", (a) -> "auto"), false);
+		DEMOTE_TRANSLUCENT_LAYER = asBoolean((String) properties.computeIfAbsent("demote-translucent-layer", (a) -> "auto"), false);
+		CACHE_BLOCK_OUTPUT = asBoolean((String) properties.computeIfAbsent("cache-block-output", (a) -> "auto"), false);
+		PROMOTE_FORWARDING_MODELS = asBoolean((String) properties.computeIfAbsent("promote-forwarding-models", (a) -> "auto"), false);
 
 		try (OutputStream stream = Files.newOutputStream(configFile)) {
 			properties.store(stream, "Indium properties file");
 		} catch (IOException e) {
 			LOGGER.warn("[Indium] Could not store property file '" + configFile.toAbsolutePath() + "'", e);
 		}
+
+		ROUTE_OVERRIDES = RouteOverrides.load(FabricLoader.getInstance().getConfigDir().resolve("indium-routes.properties"));
 	}
 
 	@Override
@@ -147,5 +179,7 @@ public class Indium implements ClientModInitializer {
 		}
 
 		ResourceManagerHelper.get(ResourceType.CLIENT_RESOURCES).registerReloadListener(SpriteFinderCache.ReloadListener.INSTANCE);
+		// block state ids are reassigned after block ids are remapped
+		RegistryIdRemapCallback.event(Registry.BLOCK).register(state -> StateIdCounter.advance());
 	}
 }
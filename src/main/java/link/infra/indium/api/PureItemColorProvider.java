@@ -0,0 +1,11 @@
+package link.infra.indium.api;
+
+import net.minecraft.client.color.item.ItemColorProvider;
+
+/**
+ * Marker for item color providers whose result depends only on the item, its NBT and the tint index,
+ * and not on time, world state or the player. When {@code cache-pure-item-tints} is enabled, Indium
+ * reuses the colors of such providers across frames instead of calling them again.
+ */
+public interface PureItemColorProvider extends ItemColorProvider {
+}
@@ -0,0 +1,60 @@
+package link.infra.indium.api;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import link.infra.indium.renderer.render.BlockRenderContext;
+import link.infra.indium.renderer.render.TerrainRenderContext;
+
+/**
+ * Bounded pools of render contexts, for mods that tesselate Fabric models on their own threads.
+ *
+ * <p>Render contexts hold sizeable lighting state, so keeping one per thread in a {@code ThreadLocal} wastes memory
+ * with large or short-lived thread pools. Instead, {@link #acquire()} a context before tesselating, use it from that
+ * thread only, and {@link #release(Object)} it when done. At most {@link #capacity()} idle contexts are kept; when
+ * none are idle a new one is created, and contexts released to a full pool are left to the garbage collector.
+ *
+ * <pre>{@code
+ * BlockRenderContext context = RenderContextPool.BLOCK.acquire();
+ * try {
+ *     context.render(world, model, state, pos, matrices, consumer, true, random, seed, overlay);
+ * } finally {
+ *     RenderContextPool.BLOCK.release(context);
+ * }
+ * }</pre>
+ */
+public final class RenderContextPool<T> {
+	private static final int DEFAULT_CAPACITY = Runtime.getRuntime().availableProcessors() * 2;
+
+	public static final RenderContextPool<BlockRenderContext> BLOCK = new RenderContextPool<>(BlockRenderContext::new, context -> { }, DEFAULT_CAPACITY);
+	/** Contexts are released from their chunk section when returned, so {@link TerrainRenderContext#release()} need not be called. */
+	public static final RenderContextPool<TerrainRenderContext> TERRAIN = new RenderContextPool<>(TerrainRenderContext::new, TerrainRenderContext::release, DEFAULT_CAPACITY);
+
+	private final Supplier<T> factory;
+	private final Consumer<T> reset;
+	private final ArrayBlockingQueue<T> idle;
+
+	private RenderContextPool(Supplier<T> factory, Consumer<T> reset, int capacity) {
+		this.factory = factory;
+		this.reset = reset;
+		idle = new ArrayBlockingQueue<>(capacity);
+	}
+
+	/** Returns an idle context, or a new one if there is none. Never blocks. */
+	public T acquire() {
+		final T context = idle.poll();
+		return context == null ? factory.get() : context;
+	}
+
+	/** Returns a context acquired from this pool. It must not be used afterwards. */
+	public void release(T context) {
+		reset.accept(context);
+		idle.offer(context);
+	}
+
+	/** Maximum number of idle contexts kept by this pool. */
+	public int capacity() {
+		return idle.remainingCapacity() + idle.size();
+	}
+}
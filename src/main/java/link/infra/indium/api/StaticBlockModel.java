@@ -0,0 +1,14 @@
+package link.infra.indium.api;
+
+import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
+
+/**
+ * Marker for block models whose {@link FabricBakedModel#emitBlockQuads} output depends only on the block state:
+ * not on the world, the position, or the random. Indium captures the quads such models emit the first time
+ * each state is rendered in terrain, and replays them afterwards without calling the model.
+ *
+ * <p>Models must only emit quads through the mesh consumer or quad emitter; models that use the fallback
+ * consumer are rendered normally.
+ */
+public interface StaticBlockModel extends FabricBakedModel {
+}
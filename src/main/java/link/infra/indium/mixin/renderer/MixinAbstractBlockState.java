@@ -0,0 +1,34 @@
+package link.infra.indium.mixin.renderer;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+import link.infra.indium.other.AccessBlockState;
+import link.infra.indium.other.StateIdCounter;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+
+@Mixin(AbstractBlock.AbstractBlockState.class)
+public class MixinAbstractBlockState implements AccessBlockState {
+	@Unique
+	private int rawId = -1;
+	@Unique
+	private int rawIdRemap;
+
+	@Override
+	public int indium$getRawId() {
+		int rawId = this.rawId;
+		final int remap = StateIdCounter.current();
+
+		// ids are assigned once all blocks are registered, and change when registry sync remaps them,
+		// so only cache them once they are known and for as long as no remap happened
+		if (rawId == -1 || rawIdRemap != remap) {
+			rawId = Block.STATE_IDS.getRawId((BlockState) (Object) this);
+			this.rawId = rawId;
+			rawIdRemap = remap;
+		}
+
+		return rawId;
+	}
+}
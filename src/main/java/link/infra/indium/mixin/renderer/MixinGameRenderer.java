@@ -0,0 +1,17 @@
+package link.infra.indium.mixin.renderer;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import link.infra.indium.other.FrameCounter;
+import net.minecraft.client.render.GameRenderer;
+
+@Mixin(GameRenderer.class)
+public class MixinGameRenderer {
+	@Inject(method = "render", at = @At("HEAD"))
+	private void onRender(float tickDelta, long startTime, boolean tick, CallbackInfo ci) {
+		FrameCounter.advance();
+	}
+}
@@ -0,0 +1,42 @@
+package link.infra.indium.mixin.renderer;
+
+import java.util.Map;
+import java.util.Optional;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+import link.infra.indium.other.AccessImmediate;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.VertexConsumerProvider;
+
+@Mixin(VertexConsumerProvider.Immediate.class)
+public class MixinImmediate implements AccessImmediate {
+	@Shadow
+	@Final
+	protected BufferBuilder fallbackBuffer;
+
+	@Shadow
+	@Final
+	protected Map<RenderLayer, BufferBuilder> layerBuffers;
+
+	@Shadow
+	protected Optional<RenderLayer> currentLayer;
+
+	@Override
+	public BufferBuilder indium$getFallbackBuffer() {
+		return fallbackBuffer;
+	}
+
+	@Override
+	public Map<RenderLayer, BufferBuilder> indium$getLayerBuffers() {
+		return layerBuffers;
+	}
+
+	@Override
+	public Optional<RenderLayer> indium$getCurrentLayer() {
+		return currentLayer;
+	}
+}
@@ -0,0 +1,24 @@
+package link.infra.indium.mixin.renderer;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+import link.infra.indium.other.AccessItemColors;
+import net.minecraft.client.color.item.ItemColorProvider;
+import net.minecraft.client.color.item.ItemColors;
+import net.minecraft.item.Item;
+import net.minecraft.util.collection.IdList;
+import net.minecraft.util.registry.Registry;
+
+@Mixin(ItemColors.class)
+public class MixinItemColors implements AccessItemColors {
+	@Shadow
+	@Final
+	private IdList<ItemColorProvider> providers;
+
+	@Override
+	public ItemColorProvider indium$getProvider(Item item) {
+		return providers.get(Registry.ITEM.getRawId(item));
+	}
+}
@@ -0,0 +1,21 @@
+package link.infra.indium.mixin.renderer;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+
+import link.infra.indium.other.AccessSprite;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.Sprite;
+
+@Mixin(Sprite.class)
+public class MixinSprite implements AccessSprite {
+	@Shadow
+	@Final
+	protected NativeImage[] images;
+
+	@Override
+	public NativeImage[] indium$getImages() {
+		return images;
+	}
+}
@@ -0,0 +1,33 @@
+package link.infra.indium.mixin.renderer;
+
+import java.util.Map;
+
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import link.infra.indium.other.AccessSpriteAtlasTexture;
+import link.infra.indium.other.SpriteFinderCache;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteAtlasTexture;
+import net.minecraft.util.Identifier;
+
+@Mixin(SpriteAtlasTexture.class)
+public class MixinSpriteAtlasTexture implements AccessSpriteAtlasTexture {
+	@Shadow
+	@Final
+	private Map<Identifier, Sprite> sprites;
+
+	@Override
+	public Map<Identifier, Sprite> indium$getSprites() {
+		return sprites;
+	}
+
+	@Inject(method = "upload", at = @At("TAIL"))
+	private void onUpload(SpriteAtlasTexture.Data data, CallbackInfo ci) {
+		SpriteFinderCache.onAtlasStitched((SpriteAtlasTexture) (Object) this);
+	}
+}
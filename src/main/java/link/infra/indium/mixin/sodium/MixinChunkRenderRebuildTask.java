@@ -6,8 +6,8 @@ import org.spongepowered.asm.mixin.injection.Inject;
 import org.spongepowered.asm.mixin.injection.Redirect;
 import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
-import link.infra.indium.Indium;
 import link.infra.indium.other.AccessChunkRenderCacheLocal;
+import link.infra.indium.renderer.render.BlockRouteTable;
 import link.infra.indium.renderer.render.TerrainRenderContext;
 import me.jellysquid.mods.sodium.client.gl.compile.ChunkBuildContext;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildResult;
@@ -16,7 +16,6 @@ import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderBuildTask;
 import me.jellysquid.mods.sodium.client.render.chunk.tasks.ChunkRenderRebuildTask;
 import me.jellysquid.mods.sodium.client.render.pipeline.BlockRenderer;
 import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
-import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.util.math.BlockPos;
@@ -32,7 +31,7 @@ public abstract class MixinChunkRenderRebuildTask extends ChunkRenderBuildTask {
 	public void beforePerformBuild(ChunkBuildContext buildContext, CancellationSource cancellationSource, CallbackInfoReturnable<ChunkBuildResult> cir) {
 		TerrainRenderContext context = ((AccessChunkRenderCacheLocal) buildContext.cache).indium$getTerrainRenderContext();
 		// Set up our rendering context
-		context.prepare(buildContext.cache.getWorldSlice(), buildContext.buffers);
+		context.prepare(buildContext.cache.getWorldSlice(), buildContext.buffers, cancellationSource);
 	}
 
 	@Inject(method = "performBuild", at = @At("RETURN"), remap = false)
@@ -49,11 +48,19 @@ public abstract class MixinChunkRenderRebuildTask extends ChunkRenderBuildTask {
 	public boolean onRenderBlock(BlockRenderer blockRenderer, BlockRenderView world, BlockState state, BlockPos pos, BlockPos origin, BakedModel model, ChunkModelBuilder buffers, boolean cull, long seed, ChunkBuildContext buildContext, CancellationSource cancellationSource) {
 		// We need to get the model with a bit more context than BlockRenderer has, so we do it here
 
-		if (!Indium.ALWAYS_TESSELATE_INDIUM && ((FabricBakedModel) model).isVanillaAdapter()) {
+		TerrainRenderContext context = ((AccessChunkRenderCacheLocal) buildContext.cache).indium$getTerrainRenderContext();
+		BlockRouteTable routes = context.routes();
+
+		if (!routes.routeToIndium(state, model)) {
 			return blockRenderer.renderModel(world, state, pos, origin, model, buffers, cull, seed);
+		}
+
+		BakedModel lowered = context.loweredModel(state, model);
+
+		if (lowered != null) {
+			return blockRenderer.renderModel(world, state, pos, origin, lowered, buffers, cull, seed);
 		} else {
-			TerrainRenderContext context = ((AccessChunkRenderCacheLocal) buildContext.cache).indium$getTerrainRenderContext();
-			Vec3d modelOffset = state.getModelOffset(world, pos);
+			Vec3d modelOffset = routes.hasOffset(state) ? state.getModelOffset(world, pos) : Vec3d.ZERO;
 			return context.tesselateBlock(state, pos, origin, model, modelOffset);
 		}
 	}
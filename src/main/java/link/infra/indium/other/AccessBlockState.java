@@ -0,0 +1,9 @@
+package link.infra.indium.other;
+
+public interface AccessBlockState {
+	/**
+	 * Same as {@code Block.STATE_IDS.getRawId(state)}, but cached in the state instead of looked up in a map.
+	 * Ids aren't stable: they change when registry sync remaps them, see {@link StateIdCounter}.
+	 */
+	int indium$getRawId();
+}
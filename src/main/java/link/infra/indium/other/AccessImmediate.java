@@ -0,0 +1,15 @@
+package link.infra.indium.other;
+
+import java.util.Map;
+import java.util.Optional;
+
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.RenderLayer;
+
+public interface AccessImmediate {
+	BufferBuilder indium$getFallbackBuffer();
+
+	Map<RenderLayer, BufferBuilder> indium$getLayerBuffers();
+
+	Optional<RenderLayer> indium$getCurrentLayer();
+}
@@ -0,0 +1,9 @@
+package link.infra.indium.other;
+
+import net.minecraft.client.color.item.ItemColorProvider;
+import net.minecraft.item.Item;
+
+public interface AccessItemColors {
+	/** The provider registered for the item, or null if it has none. */
+	ItemColorProvider indium$getProvider(Item item);
+}
@@ -0,0 +1,8 @@
+package link.infra.indium.other;
+
+import net.minecraft.client.texture.NativeImage;
+
+public interface AccessSprite {
+	/** Images of all mipmap levels, each holding all animation frames. */
+	NativeImage[] indium$getImages();
+}
@@ -0,0 +1,10 @@
+package link.infra.indium.other;
+
+import java.util.Map;
+
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.Identifier;
+
+public interface AccessSpriteAtlasTexture {
+	Map<Identifier, Sprite> indium$getSprites();
+}
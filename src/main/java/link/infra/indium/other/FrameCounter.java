@@ -0,0 +1,17 @@
+package link.infra.indium.other;
+
+/**
+ * Counts rendered frames, so that per-frame caches in render contexts can tell when a new frame has started.
+ * Only advanced on the render thread, but may be read from any thread.
+ */
+public class FrameCounter {
+	private static volatile int frame = 0;
+
+	public static int current() {
+		return frame;
+	}
+
+	public static void advance() {
+		frame++;
+	}
+}
@@ -0,0 +1,17 @@
+package link.infra.indium.other;
+
+/**
+ * Counts completed resource reloads, so that caches holding baked models or sprites can tell when they are outdated.
+ * Only advanced on the render thread, but may be read from any thread.
+ */
+public class ReloadCounter {
+	private static volatile int reload = 0;
+
+	public static int current() {
+		return reload;
+	}
+
+	public static void advance() {
+		reload++;
+	}
+}
@@ -0,0 +1,169 @@
+package link.infra.indium.other;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * User-configured choice of renderer for specific blocks, read from {@code indium-routes.properties}. Keys are
+ * block ids ({@code minecraft:stone}), namespaces ({@code minecraft}) or model classes prefixed with
+ * {@code class:}, and values are {@code indium}, {@code sodium} or {@code auto}.
+ *
+ * <p>Block ids take precedence over model classes (including superclasses), which take precedence over
+ * namespaces. {@code auto} keeps the default decision, which is to let Sodium render models that are vanilla
+ * adapters. Forcing Sodium on other models skips anything they only emit through the Fabric rendering API.
+ */
+public class RouteOverrides {
+	private static final Logger LOGGER = LogManager.getLogger();
+	private static final String CLASS_PREFIX = "class:";
+
+	private final Map<Identifier, TriState> blocks = new HashMap<>();
+	private final Map<String, TriState> namespaces = new HashMap<>();
+	private final Map<String, TriState> modelClasses = new HashMap<>();
+
+	private RouteOverrides() { }
+
+	/** Reads the overrides from the given file, creating an empty one to fill in if there is none. */
+	public static RouteOverrides load(Path file) {
+		final RouteOverrides overrides = new RouteOverrides();
+
+		if (!Files.exists(file)) {
+			try (Writer writer = Files.newBufferedWriter(file)) {
+				writer.write("# Indium routing overrides\n");
+				writer.write("# <block id | namespace | class:<model class>>=<indium | sodium | auto>\n");
+			} catch (IOException e) {
+				LOGGER.warn("[Indium] Could not create routing file '" + file.toAbsolutePath() + "'", e);
+			}
+
+			return overrides;
+		}
+
+		final List<String> lines;
+
+		try {
+			lines = Files.readAllLines(file);
+		} catch (IOException e) {
+			LOGGER.warn("[Indium] Could not read routing file '" + file.toAbsolutePath() + "'", e);
+			return overrides;
+		}
+
+		overrides.parseLines(lines);
+
+		if (!overrides.isEmpty()) {
+			LOGGER.info("[Indium] Loaded {} routing overrides", overrides.blocks.size() + overrides.namespaces.size() + overrides.modelClasses.size());
+		}
+
+		return overrides;
+	}
+
+	/**
+	 * Parses {@code key=value} lines. Not read as {@link java.util.Properties}, which would end keys at the colon
+	 * in block ids and {@code class:} entries.
+	 */
+	static RouteOverrides parse(List<String> lines) {
+		final RouteOverrides overrides = new RouteOverrides();
+		overrides.parseLines(lines);
+		return overrides;
+	}
+
+	private void parseLines(List<String> lines) {
+		for (String line : lines) {
+			line = line.trim();
+
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+
+			final int separator = line.indexOf('=');
+
+			if (separator < 0) {
+				LOGGER.warn("[Indium] Ignoring routing line '{}', expected <key>=<route>", line);
+				continue;
+			}
+
+			final String key = line.substring(0, separator).trim();
+			final String value = line.substring(separator + 1).trim();
+			final TriState route = parseRoute(value);
+
+			if (route == null) {
+				LOGGER.warn("[Indium] Ignoring route '{}' for '{}', expected indium, sodium or auto", value, key);
+			} else if (key.startsWith(CLASS_PREFIX)) {
+				modelClasses.put(key.substring(CLASS_PREFIX.length()).trim(), route);
+			} else if (key.indexOf(':') < 0) {
+				namespaces.put(key, route);
+			} else {
+				final Identifier id = Identifier.tryParse(key);
+
+				if (id == null) {
+					LOGGER.warn("[Indium] Ignoring route for invalid block id '{}'", key);
+				} else {
+					blocks.put(id, route);
+				}
+			}
+		}
+	}
+
+	private static TriState parseRoute(String value) {
+		switch (value.trim().toLowerCase(Locale.ROOT)) {
+		case "indium":
+			return TriState.TRUE;
+		case "sodium":
+			return TriState.FALSE;
+		case "auto":
+			return TriState.DEFAULT;
+		default:
+			return null;
+		}
+	}
+
+	public boolean isEmpty() {
+		return blocks.isEmpty() && namespaces.isEmpty() && modelClasses.isEmpty();
+	}
+
+	/**
+	 * {@link TriState#TRUE} if the model should be rendered by Indium, {@link TriState#FALSE} if by Sodium,
+	 * or {@link TriState#DEFAULT} if nothing is configured for it.
+	 */
+	public TriState route(BlockState state, BakedModel model) {
+		if (isEmpty()) {
+			return TriState.DEFAULT;
+		}
+
+		return route(Registry.BLOCK.getId(state.getBlock()), model.getClass());
+	}
+
+	/** Like {@link #route(BlockState, BakedModel)}, for the block with the given id and a model of the given class. */
+	TriState route(Identifier id, Class<?> modelClass) {
+		TriState route = blocks.get(id);
+
+		if (route != null) {
+			return route;
+		}
+
+		if (!modelClasses.isEmpty()) {
+			for (Class<?> clazz = modelClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+				route = modelClasses.get(clazz.getName());
+
+				if (route != null) {
+					return route;
+				}
+			}
+		}
+
+		return namespaces.getOrDefault(id.getNamespace(), TriState.DEFAULT);
+	}
+}
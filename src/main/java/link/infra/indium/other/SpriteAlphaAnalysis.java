@@ -0,0 +1,107 @@
+package link.infra.indium.other;
+
+import java.util.concurrent.CompletableFuture;
+
+import link.infra.indium.Indium;
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.Util;
+
+/**
+ * Classifies block atlas sprites by the alpha values of their pixels, so that quads with sprites that have no
+ * semi-transparent pixels can be moved out of the translucent layer. Runs on a worker thread after each resource
+ * reload; until it completes, every sprite is reported as {@link #TRANSLUCENT}.
+ */
+public class SpriteAlphaAnalysis {
+	/** All pixels are fully opaque. */
+	public static final byte OPAQUE = 0;
+	/** All pixels are either fully opaque or fully transparent. */
+	public static final byte CUTOUT = 1;
+	/** Some pixels are semi-transparent, or the sprite hasn't been analyzed. */
+	public static final byte TRANSLUCENT = 2;
+
+	/** Published as one object, so that readers never see the classes of one index with another. */
+	private static volatile Result result;
+
+	/** Class of the sprite, one of {@link #OPAQUE}, {@link #CUTOUT} or {@link #TRANSLUCENT}. */
+	public static byte classify(Sprite sprite) {
+		final Result result = SpriteAlphaAnalysis.result;
+
+		if (result == null || result.index.atlas() != sprite.getAtlas()) {
+			return TRANSLUCENT;
+		}
+
+		final int id = result.index.spriteId(sprite);
+		return id < 0 || id >= result.classes.length ? TRANSLUCENT : result.classes[id];
+	}
+
+	/** Starts analyzing the sprites of the index in the background. */
+	static void start(SpriteIndex index) {
+		result = null;
+		final int reload = ReloadCounter.current();
+
+		CompletableFuture.runAsync(() -> {
+			final byte[] result = new byte[index.size()];
+			final int[] counts = new int[3];
+
+			for (int i = 0; i < result.length; i++) {
+				if (ReloadCounter.current() != reload) {
+					// images may be closed by the next reload
+					return;
+				}
+
+				result[i] = analyze(index.sprite(i));
+				counts[result[i]]++;
+			}
+
+			synchronized (SpriteAlphaAnalysis.class) {
+				if (ReloadCounter.current() == reload) {
+					SpriteAlphaAnalysis.result = new Result(index, result);
+				}
+			}
+
+			Indium.LOGGER.info("[Indium] Analyzed {} block sprites: {} opaque, {} cutout, {} translucent", result.length, counts[OPAQUE], counts[CUTOUT], counts[TRANSLUCENT]);
+		}, Util.getMainWorkerExecutor()).exceptionally(throwable -> {
+			Indium.LOGGER.warn("[Indium] Could not analyze block sprite transparency", throwable);
+			return null;
+		});
+	}
+
+	private static class Result {
+		final SpriteIndex index;
+		final byte[] classes;
+
+		Result(SpriteIndex index, byte[] classes) {
+			this.index = index;
+			this.classes = classes;
+		}
+	}
+
+	private static byte analyze(Sprite sprite) {
+		final NativeImage[] images = ((AccessSprite) sprite).indium$getImages();
+
+		if (images == null || images.length == 0 || images[0] == null) {
+			return TRANSLUCENT;
+		}
+
+		// mipmaps are derived from the base level, but average alpha, so only the base level is meaningful
+		final NativeImage image = images[0];
+		final int width = image.getWidth();
+		final int height = image.getHeight();
+		byte result = OPAQUE;
+
+		for (int y = 0; y < height; y++) {
+			for (int x = 0; x < width; x++) {
+				final int alpha = (image.getColor(x, y) >>> 24) & 0xFF;
+
+				if (alpha == 0) {
+					result = CUTOUT;
+				} else if (alpha != 255) {
+					return TRANSLUCENT;
+				}
+			}
+		}
+
+		return result;
+	}
+}
@@ -3,27 +3,70 @@ package link.infra.indium.other;
 import java.util.Collection;
 import java.util.List;
 
+import link.infra.indium.Indium;
+import net.fabricmc.fabric.api.renderer.v1.mesh.QuadView;
 import net.fabricmc.fabric.api.renderer.v1.model.SpriteFinder;
 import net.fabricmc.fabric.api.resource.ResourceReloadListenerKeys;
 import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.model.BakedModelManager;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteAtlasTexture;
 import net.minecraft.resource.ResourceManager;
 import net.minecraft.screen.PlayerScreenHandler;
 import net.minecraft.util.Identifier;
 
 /**
- * Cache SpriteFinders for maximum efficiency.
+ * Cache SpriteFinders for maximum efficiency, along with a {@link SpriteIndex} of the block atlas
+ * that answers most lookups without walking the SpriteFinder tree.
  *
  * <p><b>This class should not be used during a resource reload</b>, as returned SpriteFinders may be null or outdated.
  */
 public class SpriteFinderCache {
 	private static SpriteFinder blockAtlasSpriteFinder;
+	private static volatile SpriteIndex blockAtlasIndex;
 
 	public static SpriteFinder forBlockAtlas() {
 		return blockAtlasSpriteFinder;
 	}
 
+	/**
+	 * Finds the block atlas sprite for a quad with no known sprite. Uses the grid in {@link SpriteIndex},
+	 * and only falls back to the {@link SpriteFinder} when the grid is ambiguous at the quad's texture coordinates.
+	 */
+	public static Sprite findBlockSprite(QuadView quad) {
+		final SpriteIndex index = blockAtlasIndex;
+		final Sprite sprite = index == null ? null : index.find(quad);
+		return sprite == null ? blockAtlasSpriteFinder.find(quad, 0) : sprite;
+	}
+
+	/**
+	 * Id of a block atlas sprite, for encoding into quad data, or -1 if the sprite isn't in the index.
+	 *
+	 * <p>Unlike the rest of this class this may be called while models are baking during a resource reload.
+	 * By then the new atlas has already been stitched and indexed, see {@link #onAtlasStitched}.
+	 */
+	public static int blockSpriteId(Sprite sprite) {
+		final SpriteIndex index = blockAtlasIndex;
+		return index == null || index.atlas() != sprite.getAtlas() ? -1 : index.spriteId(sprite);
+	}
+
+	/** Block atlas sprite with the given id from {@link #blockSpriteId(Sprite)}, or null if there is none. */
+	public static Sprite blockSpriteById(int id) {
+		final SpriteIndex index = blockAtlasIndex;
+		return id == -1 || index == null ? null : index.sprite(id);
+	}
+
+	/**
+	 * Called on the render thread once an atlas has been stitched, before models using its sprites are baked.
+	 * Atlases are reused across reloads, so this is the only reliable sign that the block atlas index is outdated.
+	 */
+	public static void onAtlasStitched(SpriteAtlasTexture atlas) {
+		if (PlayerScreenHandler.BLOCK_ATLAS_TEXTURE.equals(atlas.getId())) {
+			blockAtlasIndex = SpriteIndex.build(atlas);
+		}
+	}
+
 	public static class ReloadListener implements SimpleSynchronousResourceReloadListener {
 		public static final Identifier ID = new Identifier("indium", "sprite_finder_cache");
 		public static final List<Identifier> DEPENDENCIES = List.of(ResourceReloadListenerKeys.MODELS);
@@ -36,7 +79,19 @@ public class SpriteFinderCache {
 		@Override
 		public void reload(ResourceManager manager) {
 			BakedModelManager modelManager = MinecraftClient.getInstance().getBakedModelManager();
-			blockAtlasSpriteFinder = SpriteFinder.get(modelManager.getAtlas(PlayerScreenHandler.BLOCK_ATLAS_TEXTURE));
+			SpriteAtlasTexture blockAtlas = modelManager.getAtlas(PlayerScreenHandler.BLOCK_ATLAS_TEXTURE);
+			blockAtlasSpriteFinder = SpriteFinder.get(blockAtlas);
+
+			// normally already indexed when the atlas was stitched, before models were baked
+			if (blockAtlasIndex == null || blockAtlasIndex.atlas() != blockAtlas) {
+				blockAtlasIndex = SpriteIndex.build(blockAtlas);
+			}
+
+			ReloadCounter.advance();
+
+			if (Indium.DEMOTE_TRANSLUCENT_LAYER) {
+				SpriteAlphaAnalysis.start(blockAtlasIndex);
+			}
 		}
 
 		@Override
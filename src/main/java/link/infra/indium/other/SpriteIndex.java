@@ -0,0 +1,141 @@
+package link.infra.indium.other;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import net.fabricmc.fabric.api.renderer.v1.mesh.QuadView;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteAtlasTexture;
+
+/**
+ * Constant-time sprite lookup for a single atlas, as an alternative to the tree walk done by {@link
+ * net.fabricmc.fabric.api.renderer.v1.model.SpriteFinder}.
+ *
+ * <p>Sprites are given stable ids (sorted by identifier) so they can be encoded into quad data, and the atlas is
+ * covered by a uniform grid of cells that each hold the id of the only sprite overlapping them. Cells overlapped
+ * by more than one sprite are marked ambiguous, in which case callers need to fall back to the {@code SpriteFinder}.
+ */
+public class SpriteIndex {
+	/** Upper bound on the number of grid cells, so that atlases with tiny sprites don't need a huge grid. */
+	private static final int MAX_CELLS = 1 << 20;
+	private static final int EMPTY = -1;
+	private static final int AMBIGUOUS = -2;
+
+	private final SpriteAtlasTexture atlas;
+	private final Sprite[] sprites;
+	private final Reference2IntOpenHashMap<Sprite> spriteIds;
+
+	private final int atlasWidth;
+	private final int atlasHeight;
+	private final int cellShift;
+	private final int cellsU;
+	private final int cellsV;
+	private final int[] cells;
+
+	private SpriteIndex(SpriteAtlasTexture atlas, Sprite[] sprites) {
+		this.atlas = atlas;
+		this.sprites = sprites;
+		spriteIds = new Reference2IntOpenHashMap<>(sprites.length);
+		spriteIds.defaultReturnValue(EMPTY);
+
+		int atlasWidth = 1;
+		int atlasHeight = 1;
+		int minSize = Integer.MAX_VALUE;
+
+		for (int i = 0; i < sprites.length; i++) {
+			final Sprite sprite = sprites[i];
+			spriteIds.put(sprite, i);
+
+			if (i == 0) {
+				atlasWidth = Math.round(sprite.getWidth() / (sprite.getMaxU() - sprite.getMinU()));
+				atlasHeight = Math.round(sprite.getHeight() / (sprite.getMaxV() - sprite.getMinV()));
+			}
+
+			minSize = Math.min(minSize, Math.min(sprite.getWidth(), sprite.getHeight()));
+		}
+
+		this.atlasWidth = atlasWidth;
+		this.atlasHeight = atlasHeight;
+
+		// largest power of two not exceeding the smallest sprite, so cells line up with sprite boundaries in most atlases
+		int cellShift = sprites.length == 0 ? 0 : 31 - Integer.numberOfLeadingZeros(Math.max(minSize, 1));
+
+		while ((long) cellCount(atlasWidth, cellShift) * cellCount(atlasHeight, cellShift) > MAX_CELLS) {
+			cellShift++;
+		}
+
+		this.cellShift = cellShift;
+		cellsU = cellCount(atlasWidth, cellShift);
+		cellsV = cellCount(atlasHeight, cellShift);
+		cells = new int[cellsU * cellsV];
+		Arrays.fill(cells, EMPTY);
+
+		for (int i = 0; i < sprites.length; i++) {
+			final Sprite sprite = sprites[i];
+			final int x0 = Math.round(sprite.getMinU() * atlasWidth) >> cellShift;
+			final int x1 = (Math.round(sprite.getMaxU() * atlasWidth) - 1) >> cellShift;
+			final int y0 = Math.round(sprite.getMinV() * atlasHeight) >> cellShift;
+			final int y1 = (Math.round(sprite.getMaxV() * atlasHeight) - 1) >> cellShift;
+
+			for (int y = Math.max(y0, 0); y <= Math.min(y1, cellsV - 1); y++) {
+				for (int x = Math.max(x0, 0); x <= Math.min(x1, cellsU - 1); x++) {
+					final int cell = y * cellsU + x;
+					cells[cell] = cells[cell] == EMPTY ? i : AMBIGUOUS;
+				}
+			}
+		}
+	}
+
+	private static int cellCount(int size, int cellShift) {
+		return ((size - 1) >> cellShift) + 1;
+	}
+
+	public static SpriteIndex build(SpriteAtlasTexture atlas) {
+		final Sprite[] sprites = ((AccessSpriteAtlasTexture) atlas).indium$getSprites().entrySet().stream()
+				.sorted(Map.Entry.comparingByKey())
+				.map(Map.Entry::getValue)
+				.toArray(Sprite[]::new);
+		return new SpriteIndex(atlas, sprites);
+	}
+
+	public SpriteAtlasTexture atlas() {
+		return atlas;
+	}
+
+	/** Id of the given sprite, or -1 if it isn't part of this index. */
+	public int spriteId(Sprite sprite) {
+		return spriteIds.getInt(sprite);
+	}
+
+	/** Number of sprites, which are numbered from 0. */
+	public int size() {
+		return sprites.length;
+	}
+
+	/** Sprite with the given id, or null if the id isn't valid for this index. */
+	public Sprite sprite(int spriteId) {
+		return spriteId >= 0 && spriteId < sprites.length ? sprites[spriteId] : null;
+	}
+
+	/**
+	 * Finds the sprite containing the centroid of the quad's texture coordinates, like
+	 * {@code SpriteFinder.find(QuadView, int)}. Returns null if the grid can't answer unambiguously.
+	 */
+	public Sprite find(QuadView quad) {
+		final float u = (quad.spriteU(0, 0) + quad.spriteU(1, 0) + quad.spriteU(2, 0) + quad.spriteU(3, 0)) * 0.25f;
+		final float v = (quad.spriteV(0, 0) + quad.spriteV(1, 0) + quad.spriteV(2, 0) + quad.spriteV(3, 0)) * 0.25f;
+		return find(u, v);
+	}
+
+	public Sprite find(float u, float v) {
+		if (!(u >= 0 && u < 1 && v >= 0 && v < 1)) {
+			return null;
+		}
+
+		// clamp in case of rounding at the far edges of the atlas
+		final int x = Math.min((int) (u * atlasWidth) >> cellShift, cellsU - 1);
+		final int y = Math.min((int) (v * atlasHeight) >> cellShift, cellsV - 1);
+		return sprite(cells[y * cellsU + x]);
+	}
+}
@@ -0,0 +1,17 @@
+package link.infra.indium.other;
+
+/**
+ * Counts remaps of block state raw ids, which registry sync does when joining or leaving a server, so that anything
+ * indexed by raw id can tell when it is outdated. Only advanced on the render thread, but may be read from any thread.
+ */
+public class StateIdCounter {
+	private static volatile int remap = 0;
+
+	public static int current() {
+		return remap;
+	}
+
+	public static void advance() {
+		remap++;
+	}
+}
@@ -456,7 +456,7 @@ public class AoCalculator {
 			}
 
 			float aoCenter = aoFunc.apply(isOnBlockFace ? lightPos : pos);
-			float worldBrightness = world.getBrightness(lightFace, shade);
+			float worldBrightness = blockInfo.diffuseShade(lightFace, shade);
 
 			result.a0 = ((ao3 + ao0 + cAo1 + aoCenter) * 0.25F) * worldBrightness;
 			result.a1 = ((ao2 + ao0 + cAo0 + aoCenter) * 0.25F) * worldBrightness;
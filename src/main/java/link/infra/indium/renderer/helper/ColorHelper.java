@@ -18,8 +18,6 @@ package link.infra.indium.renderer.helper;
 
 import java.nio.ByteOrder;
 
-import it.unimi.dsi.fastutil.ints.Int2IntFunction;
-
 /**
  * Static routines of general utility for renderer implementations.
  * Renderers are not required to use these helpers, but they were
@@ -28,13 +26,16 @@ import it.unimi.dsi.fastutil.ints.Int2IntFunction;
 public abstract class ColorHelper {
 	private ColorHelper() { }
 
-	private static final Int2IntFunction colorSwapper = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? color -> ((color & 0xFF00FF00) | ((color & 0x00FF0000) >> 16) | ((color & 0xFF) << 16)) : color -> color;
+	private static final boolean SWAP_RED_BLUE = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN;
+
+	/** Fractional bits of fixed-point shade factors, see {@link #toFixedShade(float)}. */
+	private static final int SHADE_BITS = 16;
 
 	/**
 	 * Swaps red blue order if needed to match GPU expectations for color component order.
 	 */
 	public static int swapRedBlueIfNeeded(int color) {
-		return colorSwapper.applyAsInt(color);
+		return SWAP_RED_BLUE ? ((color & 0xFF00FF00) | ((color & 0x00FF0000) >> 16) | ((color & 0xFF) << 16)) : color;
 	}
 
 	/** Component-wise multiply. Components need to be in same order in both inputs! */
@@ -63,6 +64,23 @@ public abstract class ColorHelper {
 		return (alpha << 24) | (red << 16) | (green << 8) | blue;
 	}
 
+	/**
+	 * Converts a shade factor in the range 0-1 to fixed point, for use with {@link #multiplyRGBFixed(int, int)}.
+	 * Rounded to nearest so that common factors such as 0.8 don't lose a step when truncated.
+	 */
+	public static int toFixedShade(float shade) {
+		return (int) (shade * (1 << SHADE_BITS) + 0.5F);
+	}
+
+	/** Like {@link #multiplyRGB(int, float)}, but with a fixed-point shade from {@link #toFixedShade(float)}. */
+	public static int multiplyRGBFixed(int color, int shade) {
+		final int red = (((color >> 16) & 0xFF) * shade) >>> SHADE_BITS;
+		final int green = (((color >> 8) & 0xFF) * shade) >>> SHADE_BITS;
+		final int blue = ((color & 0xFF) * shade) >>> SHADE_BITS;
+
+		return (color & 0xFF000000) | (red << 16) | (green << 8) | blue;
+	}
+
 	/**
 	 * Component-wise max.
 	 */
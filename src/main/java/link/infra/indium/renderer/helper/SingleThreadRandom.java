@@ -0,0 +1,62 @@
+package link.infra.indium.renderer.helper;
+
+import java.util.Random;
+
+/**
+ * Produces exactly the same sequence as {@link Random} for the same seed, but without the atomic
+ * compare-and-set that {@code Random} does on every {@link #setSeed(long)} and {@link #next(int)}.
+ * Models are given a freshly seeded random several times per block, which makes that overhead add up.
+ *
+ * <p>Must only be used from one thread at a time.
+ */
+public class SingleThreadRandom extends Random {
+	private static final long MULTIPLIER = 0x5DEECE66DL;
+	private static final long ADDEND = 0xBL;
+	private static final long MASK = (1L << 48) - 1;
+
+	// not initialized here, as the super constructor calls setSeed before field initializers run
+	private long seed;
+	private double nextNextGaussian;
+	private boolean haveNextNextGaussian;
+
+	public SingleThreadRandom() {
+		super(0L);
+	}
+
+	@Override
+	public void setSeed(long seed) {
+		this.seed = (seed ^ MULTIPLIER) & MASK;
+		haveNextNextGaussian = false;
+	}
+
+	@Override
+	protected int next(int bits) {
+		final long seed = (this.seed * MULTIPLIER + ADDEND) & MASK;
+		this.seed = seed;
+		return (int) (seed >>> (48 - bits));
+	}
+
+	/** Same algorithm as {@link Random#nextGaussian()}, which keeps its own cached value that {@link #setSeed(long)} can't reset. */
+	@Override
+	public double nextGaussian() {
+		if (haveNextNextGaussian) {
+			haveNextNextGaussian = false;
+			return nextNextGaussian;
+		}
+
+		double v1;
+		double v2;
+		double s;
+
+		do {
+			v1 = 2 * nextDouble() - 1;
+			v2 = 2 * nextDouble() - 1;
+			s = v1 * v1 + v2 * v2;
+		} while (s >= 1 || s == 0);
+
+		final double multiplier = StrictMath.sqrt(-2 * StrictMath.log(s) / s);
+		nextNextGaussian = v2 * multiplier;
+		haveNextNextGaussian = true;
+		return v1 * multiplier;
+	}
+}
@@ -39,7 +39,9 @@ public abstract class EncodingFormat {
 	static final int HEADER_BITS = 0;
 	static final int HEADER_COLOR_INDEX = 1;
 	static final int HEADER_TAG = 2;
-	public static final int HEADER_STRIDE = 3;
+	/** Block atlas sprite id from {@link link.infra.indium.other.SpriteFinderCache#blockSpriteId}, or -1 if unknown. */
+	static final int HEADER_SPRITE = 3;
+	public static final int HEADER_STRIDE = 4;
 
 	static final int VERTEX_X;
 	static final int VERTEX_Y;
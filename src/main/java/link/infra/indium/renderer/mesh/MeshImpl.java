@@ -31,7 +31,7 @@ public class MeshImpl implements Mesh {
 
 	final int[] data;
 
-	MeshImpl(int[] data) {
+	public MeshImpl(int[] data) {
 		this.data = data;
 	}
 
@@ -17,6 +17,7 @@
 package link.infra.indium.renderer.mesh;
 
 import com.google.common.base.Preconditions;
+import link.infra.indium.other.SpriteFinderCache;
 import link.infra.indium.renderer.IndiumRenderer;
 import link.infra.indium.renderer.RenderMaterialImpl.Value;
 import link.infra.indium.renderer.helper.NormalHelper;
@@ -52,12 +53,18 @@ public abstract class MutableQuadViewImpl extends QuadViewImpl implements QuadEm
 		cullFace(null);
 		material(IndiumRenderer.MATERIAL_STANDARD);
 		cachedSprite(null);
+		spriteId(-1);
 	}
 
 	@Override
 	public final void load() {
 		super.load();
-		cachedSprite(null);
+		// sprite id is only encoded by spriteBake, and is reset if texture coordinates are changed afterwards
+		cachedSprite(SpriteFinderCache.blockSpriteById(spriteId()));
+	}
+
+	private void spriteId(int spriteId) {
+		data[baseIndex + HEADER_SPRITE] = spriteId;
 	}
 
 	@Override
@@ -104,6 +111,7 @@ public abstract class MutableQuadViewImpl extends QuadViewImpl implements QuadEm
 		System.arraycopy(quadData, startIndex, data, baseIndex + HEADER_STRIDE, QUAD_STRIDE);
 		isGeometryInvalid = true;
 		cachedSprite(null);
+		spriteId(-1);
 		return this;
 	}
 
@@ -118,6 +126,7 @@ public abstract class MutableQuadViewImpl extends QuadViewImpl implements QuadEm
 		shade(quad.hasShade());
 		isGeometryInvalid = true;
 		cachedSprite(quad.getSprite());
+		spriteId(-1);
 		return this;
 	}
 
@@ -183,6 +192,7 @@ public abstract class MutableQuadViewImpl extends QuadViewImpl implements QuadEm
 		data[i] = Float.floatToRawIntBits(u);
 		data[i + 1] = Float.floatToRawIntBits(v);
 		cachedSprite = null;
+		spriteId(-1);
 		return this;
 	}
 
@@ -192,6 +202,7 @@ public abstract class MutableQuadViewImpl extends QuadViewImpl implements QuadEm
 
 		TextureHelper.bakeSprite(this, spriteIndex, sprite, bakeFlags);
 		cachedSprite(sprite);
+		spriteId(SpriteFinderCache.blockSpriteId(sprite));
 		return this;
 	}
 
@@ -48,7 +48,7 @@ public class QuadViewImpl implements QuadView {
 	 * Use when subtype is "attached" to a pre-existing array.
 	 * Sets data reference and index and decodes state from array.
 	 */
-	final void load(int[] data, int baseIndex) {
+	public final void load(int[] data, int baseIndex) {
 		this.data = data;
 		this.baseIndex = baseIndex;
 		load();
@@ -250,6 +250,11 @@ public class QuadViewImpl implements QuadView {
 		return Float.intBitsToFloat(data[baseIndex + vertexIndex * VERTEX_STRIDE + VERTEX_V]);
 	}
 
+	/** Block atlas sprite id encoded by {@link MutableQuadViewImpl#spriteBake}, or -1 if unknown. */
+	public int spriteId() {
+		return data[baseIndex + HEADER_SPRITE];
+	}
+
 	public int vertexStart() {
 		return baseIndex + HEADER_STRIDE;
 	}
@@ -16,6 +16,8 @@
 
 package link.infra.indium.renderer.render;
 
+import java.util.Arrays;
+
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 
 import net.fabricmc.fabric.api.renderer.v1.mesh.MutableQuadView;
@@ -25,17 +27,13 @@ abstract class AbstractRenderContext implements RenderContext {
 	private final ObjectArrayList<QuadTransform> transformStack = new ObjectArrayList<>();
 	private static final QuadTransform NO_TRANSFORM = (q) -> true;
 
-	private final QuadTransform stackTransform = (q) -> {
-		int i = transformStack.size() - 1;
-
-		while (i >= 0) {
-			if (!transformStack.get(i--).transform(q)) {
-				return false;
-			}
-		}
-
-		return true;
-	};
+	/**
+	 * Transform applying the whole stack, for each stack depth (index is depth - 1). Deeper entries stay valid
+	 * when popping, as the part of the stack below them doesn't change. Entries are also reused on the next push
+	 * to the same depth when the stack holds the same transforms, which is common as most wrapper models push
+	 * the same transform instances for every block.
+	 */
+	private QuadTransform[] compiledTransforms = new QuadTransform[4];
 
 	private QuadTransform activeTransform = NO_TRANSFORM;
 
@@ -54,22 +52,95 @@ abstract class AbstractRenderContext implements RenderContext {
 		}
 
 		transformStack.push(transform);
+		final int depth = transformStack.size();
+
+		if (depth > compiledTransforms.length) {
+			compiledTransforms = Arrays.copyOf(compiledTransforms, compiledTransforms.length * 2);
+		}
+
+		final QuadTransform compiled = compiledTransforms[depth - 1];
 
-		if (transformStack.size() == 1) {
+		if (depth == 1) {
 			activeTransform = transform;
-		} else if (transformStack.size() == 2) {
-			activeTransform = stackTransform;
+		} else if (depth == 2) {
+			// most common case with stacked transforms, so use a class with a fixed shape the JIT can inline
+			if (compiled instanceof PairTransform pair && pair.first == transform && pair.second == transformStack.get(0)) {
+				activeTransform = pair;
+			} else {
+				activeTransform = new PairTransform(transform, transformStack.get(0));
+			}
+		} else {
+			if (compiled instanceof ChainTransform chain && chain.matches(transformStack)) {
+				activeTransform = chain;
+			} else {
+				activeTransform = new ChainTransform(transformStack);
+			}
 		}
+
+		compiledTransforms[depth - 1] = activeTransform;
 	}
 
 	@Override
 	public void popTransform() {
 		transformStack.pop();
+		final int depth = transformStack.size();
+		activeTransform = depth == 0 ? NO_TRANSFORM : compiledTransforms[depth - 1];
+	}
+
+	/** Applies two transforms, the most recently pushed first. */
+	private static class PairTransform implements QuadTransform {
+		private final QuadTransform first;
+		private final QuadTransform second;
+
+		private PairTransform(QuadTransform first, QuadTransform second) {
+			this.first = first;
+			this.second = second;
+		}
+
+		@Override
+		public boolean transform(MutableQuadView quad) {
+			return first.transform(quad) && second.transform(quad);
+		}
+	}
+
+	/** Applies any number of transforms, in the order they need to run (reverse of the stack). */
+	private static class ChainTransform implements QuadTransform {
+		private final QuadTransform[] transforms;
+
+		private ChainTransform(ObjectArrayList<QuadTransform> stack) {
+			final int size = stack.size();
+			transforms = new QuadTransform[size];
+
+			for (int i = 0; i < size; i++) {
+				transforms[i] = stack.get(size - 1 - i);
+			}
+		}
+
+		private boolean matches(ObjectArrayList<QuadTransform> stack) {
+			final int size = stack.size();
+
+			if (size != transforms.length) {
+				return false;
+			}
+
+			for (int i = 0; i < size; i++) {
+				if (transforms[i] != stack.get(size - 1 - i)) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+
+		@Override
+		public boolean transform(MutableQuadView quad) {
+			for (final QuadTransform transform : transforms) {
+				if (!transform.transform(quad)) {
+					return false;
+				}
+			}
 
-		if (transformStack.size() == 0) {
-			activeTransform = NO_TRANSFORM;
-		} else if (transformStack.size() == 1) {
-			activeTransform = transformStack.get(0);
+			return true;
 		}
 	}
 }
@@ -114,12 +114,12 @@ public class BaseFallbackConsumer extends BaseQuadRenderer implements Consumer<B
 			return;
 		}
 
-		cullFace = editorQuad.cullFace();
-
-		if (cullFace != null && !blockInfo.shouldDrawFace(cullFace)) {
+		if (!shouldDraw(editorQuad)) {
 			return;
 		}
 
+		cullFace = editorQuad.cullFace();
+
 		if (!editorQuad.material().disableAo(0)) {
 			// needs to happen before offsets are applied
 			aoCalc.compute(editorQuad, true);
@@ -18,11 +18,11 @@ package link.infra.indium.renderer.render;
 
 import java.util.function.Consumer;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import link.infra.indium.renderer.aocalc.AoCalculator;
 import link.infra.indium.renderer.mesh.EncodingFormat;
 import link.infra.indium.renderer.mesh.MeshImpl;
 import link.infra.indium.renderer.mesh.MutableQuadViewImpl;
-import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.render.RenderLayer;
 
 import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
@@ -62,6 +62,21 @@ public class BaseMeshConsumer extends BaseQuadRenderer implements Consumer<Mesh>
 
 	private final Maker editorQuad = new Maker();
 
+	/** Receives a copy of every transformed quad while capturing for {@link StaticModelCache}, otherwise null. */
+	private IntArrayList capture;
+
+	/** Starts copying transformed quads, before culling, so they can be replayed later as a mesh. */
+	void startCapture() {
+		capture = new IntArrayList();
+	}
+
+	/** Stops capturing and returns the quads captured since {@link #startCapture()}, packed as mesh data. */
+	int[] finishCapture() {
+		final int[] data = capture.toIntArray();
+		capture = null;
+		return data;
+	}
+
 	@Override
 	public void accept(Mesh mesh) {
 		final MeshImpl m = (MeshImpl) mesh;
@@ -87,13 +102,19 @@ public class BaseMeshConsumer extends BaseQuadRenderer implements Consumer<Mesh>
 			return;
 		}
 
-		if (!blockInfo.shouldDrawFace(q.cullFace())) {
+		if (capture != null) {
+			// make sure light face and geometry flags are encoded, as transforms may have changed the geometry
+			q.geometryFlags();
+			capture.addElements(capture.size(), q.data(), q.vertexStart() - EncodingFormat.HEADER_STRIDE, EncodingFormat.TOTAL_STRIDE);
+		}
+
+		if (!shouldDraw(q)) {
 			return;
 		}
 
 		final RenderMaterialImpl.Value mat = q.material();
 
-		if (!mat.disableAo(0) && MinecraftClient.isAmbientOcclusionEnabled()) {
+		if (!mat.disableAo(0) && blockInfo.aoEnabled) {
 			// needs to happen before offsets are applied
 			aoCalc.compute(q, false);
 		}
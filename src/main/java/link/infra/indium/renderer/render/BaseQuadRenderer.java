@@ -16,6 +16,9 @@
 
 package link.infra.indium.renderer.render;
 
+import link.infra.indium.Indium;
+import link.infra.indium.other.SpriteAlphaAnalysis;
+import link.infra.indium.other.SpriteFinderCache;
 import link.infra.indium.renderer.aocalc.AoCalculator;
 import link.infra.indium.renderer.helper.ColorHelper;
 import link.infra.indium.renderer.helper.GeometryHelper;
@@ -25,6 +28,7 @@ import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.WorldRenderer;
+import net.minecraft.client.texture.Sprite;
 import net.minecraft.util.math.*;
 
 /**
@@ -46,34 +50,81 @@ public class BaseQuadRenderer {
 		this.transform = transform;
 	}
 
-	/** handles block color and red-blue swizzle, common to all renders. */
-	private void colorizeQuad(MutableQuadViewImpl q, int blockColorIndex) {
-		if (blockColorIndex == -1) {
-			for (int i = 0; i < 4; i++) {
-				q.spriteColor(i, 0, ColorHelper.swapRedBlueIfNeeded(q.spriteColor(i, 0)));
-			}
-		} else {
-			final int blockColor = blockInfo.blockColor(blockColorIndex);
+	/** block color for the given color index, or -1 (no-op for {@link ColorHelper#multiplyColor}) if none. */
+	private int blockColor(int blockColorIndex) {
+		return blockColorIndex == -1 ? -1 : blockInfo.blockColor(blockColorIndex);
+	}
 
-			for (int i = 0; i < 4; i++) {
-				q.spriteColor(i, 0, ColorHelper.swapRedBlueIfNeeded(ColorHelper.multiplyColor(blockColor, q.spriteColor(i, 0))));
+	/**
+	 * Handles block color, red-blue swizzle and shading in one step, common to all renders.
+	 * Shade is fixed point, see {@link ColorHelper#toFixedShade(float)}.
+	 */
+	private static int colorize(int color, int blockColor, int shade) {
+		return ColorHelper.multiplyRGBFixed(ColorHelper.swapRedBlueIfNeeded(ColorHelper.multiplyColor(blockColor, color)), shade);
+	}
+
+	/** Culling test, common to all renders. */
+	protected boolean shouldDraw(MutableQuadViewImpl quad) {
+		final Direction cullFace = CullFaceInference.cullFace(quad);
+
+		if (cullFace == null) {
+			return true;
+		}
+
+		final boolean draw = blockInfo.shouldDrawFace(cullFace);
+
+		if (cullFace != quad.cullFace()) {
+			CullFaceInference.count(blockInfo.model, !draw);
+		}
+
+		return draw;
+	}
+
+	/**
+	 * Translucent quads are sorted and drawn in a separate, much more expensive pass. If enabled, quads whose
+	 * sprite and vertex colors have no semi-transparent alpha are moved to the solid or cutout layer instead,
+	 * which looks the same.
+	 */
+	private RenderLayer demoteLayer(MutableQuadViewImpl quad, RenderLayer renderLayer) {
+		if (!Indium.DEMOTE_TRANSLUCENT_LAYER || renderLayer != RenderLayer.getTranslucent()) {
+			return renderLayer;
+		}
+
+		for (int i = 0; i < 4; i++) {
+			if ((quad.spriteColor(i, 0) >>> 24) != 0xFF) {
+				return renderLayer;
 			}
 		}
+
+		Sprite sprite = quad.cachedSprite();
+
+		if (sprite == null) {
+			sprite = SpriteFinderCache.findBlockSprite(quad);
+		}
+
+		switch (SpriteAlphaAnalysis.classify(sprite)) {
+		case SpriteAlphaAnalysis.OPAQUE:
+			return RenderLayer.getSolid();
+		case SpriteAlphaAnalysis.CUTOUT:
+			return RenderLayer.getCutoutMipped();
+		default:
+			return renderLayer;
+		}
 	}
 
 	/** final output step, common to all renders. */
 	private void bufferQuad(MutableQuadViewImpl quad, RenderLayer renderLayer) {
-		bufferer.bufferQuad(quad, renderLayer);
+		bufferer.bufferQuad(quad, demoteLayer(quad, renderLayer));
 	}
 
 	// routines below have a bit of copy-paste code reuse to avoid conditional execution inside a hot loop
 
 	/** for non-emissive mesh quads and all fallback quads with smooth lighting. */
 	protected void tesselateSmooth(MutableQuadViewImpl q, RenderLayer renderLayer, int blockColorIndex) {
-		colorizeQuad(q, blockColorIndex);
+		final int blockColor = blockColor(blockColorIndex);
 
 		for (int i = 0; i < 4; i++) {
-			q.spriteColor(i, 0, ColorHelper.multiplyRGB(q.spriteColor(i, 0), aoCalc.ao[i]));
+			q.spriteColor(i, 0, colorize(q.spriteColor(i, 0), blockColor, ColorHelper.toFixedShade(aoCalc.ao[i])));
 			q.lightmap(i, ColorHelper.maxBrightness(q.lightmap(i), aoCalc.light[i]));
 		}
 
@@ -82,10 +133,10 @@ public class BaseQuadRenderer {
 
 	/** for emissive mesh quads with smooth lighting. */
 	protected void tesselateSmoothEmissive(MutableQuadViewImpl q, RenderLayer renderLayer, int blockColorIndex) {
-		colorizeQuad(q, blockColorIndex);
+		final int blockColor = blockColor(blockColorIndex);
 
 		for (int i = 0; i < 4; i++) {
-			q.spriteColor(i, 0, ColorHelper.multiplyRGB(q.spriteColor(i, 0), aoCalc.ao[i]));
+			q.spriteColor(i, 0, colorize(q.spriteColor(i, 0), blockColor, ColorHelper.toFixedShade(aoCalc.ao[i])));
 			q.lightmap(i, FULL_BRIGHTNESS);
 		}
 
@@ -94,27 +145,14 @@ public class BaseQuadRenderer {
 
 	/** for non-emissive mesh quads and all fallback quads with flat lighting. */
 	protected void tesselateFlat(MutableQuadViewImpl quad, RenderLayer renderLayer, int blockColorIndex) {
-		colorizeQuad(quad, blockColorIndex);
-		shadeFlatQuad(quad);
-
-		final int brightness = flatBrightness(quad, blockInfo.blockState, blockInfo.blockPos);
-
-		for (int i = 0; i < 4; i++) {
-			quad.lightmap(i, ColorHelper.maxBrightness(quad.lightmap(i), brightness));
-		}
-
+		shadeFlatQuad(quad, blockColor(blockColorIndex), flatBrightness(quad, blockInfo.blockState, blockInfo.blockPos));
 		bufferQuad(quad, renderLayer);
 	}
 
 	/** for emissive mesh quads with flat lighting. */
 	protected void tesselateFlatEmissive(MutableQuadViewImpl quad, RenderLayer renderLayer, int blockColorIndex) {
-		colorizeQuad(quad, blockColorIndex);
-		shadeFlatQuad(quad);
-
-		for (int i = 0; i < 4; i++) {
-			quad.lightmap(i, FULL_BRIGHTNESS);
-		}
-
+		// full brightness is the maximum, so taking the max with it is the same as replacing the lightmap
+		shadeFlatQuad(quad, blockColor(blockColorIndex), FULL_BRIGHTNESS);
 		bufferQuad(quad, renderLayer);
 	}
 
@@ -143,23 +181,25 @@ public class BaseQuadRenderer {
 	/**
 	 * Starting in 1.16 flat shading uses dimension-specific diffuse factors that can be < 1.0
 	 * even for un-shaded quads. These are also applied with AO shading but that is done in AO calculator.
+	 *
+	 * <p>Also applies block color and the flat lightmap, so that each vertex is only visited once.
 	 */
-	private void shadeFlatQuad(MutableQuadViewImpl quad) {
+	private void shadeFlatQuad(MutableQuadViewImpl quad, int blockColor, int brightness) {
 		if ((quad.geometryFlags() & GeometryHelper.AXIS_ALIGNED_FLAG) == 0 || quad.hasVertexNormals()) {
 			// Quads that aren't direction-aligned or that have vertex normals need to be shaded
 			// using interpolation - vanilla can't handle them. Generally only applies to modded models.
-			final float faceShade = blockInfo.blockView.getBrightness(quad.lightFace(), quad.hasShade());
+			final float faceShade = blockInfo.diffuseShade(quad.lightFace(), quad.hasShade());
 
 			for (int i = 0; i < 4; i++) {
-				quad.spriteColor(i, 0, ColorHelper.multiplyRGB(quad.spriteColor(i, 0), vertexShade(quad, i, faceShade)));
+				quad.spriteColor(i, 0, colorize(quad.spriteColor(i, 0), blockColor, ColorHelper.toFixedShade(vertexShade(quad, i, faceShade))));
+				quad.lightmap(i, ColorHelper.maxBrightness(quad.lightmap(i), brightness));
 			}
 		} else {
-			final float diffuseShade = blockInfo.blockView.getBrightness(quad.lightFace(), quad.hasShade());
+			final int diffuseShade = ColorHelper.toFixedShade(blockInfo.diffuseShade(quad.lightFace(), quad.hasShade()));
 
-			if (diffuseShade != 1.0f) {
-				for (int i = 0; i < 4; i++) {
-					quad.spriteColor(i, 0, ColorHelper.multiplyRGB(quad.spriteColor(i, 0), diffuseShade));
-				}
+			for (int i = 0; i < 4; i++) {
+				quad.spriteColor(i, 0, colorize(quad.spriteColor(i, 0), blockColor, diffuseShade));
+				quad.lightmap(i, ColorHelper.maxBrightness(quad.lightmap(i), brightness));
 			}
 		}
 	}
@@ -178,26 +218,26 @@ public class BaseQuadRenderer {
 		float div = 0;
 
 		if (normalX > 0) {
-			sum += normalX * blockInfo.blockView.getBrightness(Direction.EAST, hasShade);
+			sum += normalX * blockInfo.diffuseShade(Direction.EAST, hasShade);
 			div += normalX;
 		} else if (normalX < 0) {
-			sum += -normalX * blockInfo.blockView.getBrightness(Direction.WEST, hasShade);
+			sum += -normalX * blockInfo.diffuseShade(Direction.WEST, hasShade);
 			div -= normalX;
 		}
 
 		if (normalY > 0) {
-			sum += normalY * blockInfo.blockView.getBrightness(Direction.UP, hasShade);
+			sum += normalY * blockInfo.diffuseShade(Direction.UP, hasShade);
 			div += normalY;
 		} else if (normalY < 0) {
-			sum += -normalY * blockInfo.blockView.getBrightness(Direction.DOWN, hasShade);
+			sum += -normalY * blockInfo.diffuseShade(Direction.DOWN, hasShade);
 			div -= normalY;
 		}
 
 		if (normalZ > 0) {
-			sum += normalZ * blockInfo.blockView.getBrightness(Direction.SOUTH, hasShade);
+			sum += normalZ * blockInfo.diffuseShade(Direction.SOUTH, hasShade);
 			div += normalZ;
 		} else if (normalZ < 0) {
-			sum += -normalZ * blockInfo.blockView.getBrightness(Direction.NORTH, hasShade);
+			sum += -normalZ * blockInfo.diffuseShade(Direction.NORTH, hasShade);
 			div -= normalZ;
 		}
 
@@ -0,0 +1,120 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import link.infra.indium.other.AccessBlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.world.ClientWorld;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Remembers the final vertex output of each block tesselated by a {@link TerrainRenderContext}, so that when a
+ * section is rebuilt after a single block update, blocks whose surroundings didn't change are replayed instead of
+ * running model emission and lighting again.
+ *
+ * <p>Entries are keyed by position and only replayed when the block's fingerprint matches: the states and
+ * brightness of the block and its 26 neighbors. Models that look further than their neighbors or at block entity
+ * data, and biome colors changing on their own, aren't covered, which is why this is opt-in. Shared by all chunk
+ * build threads.
+ */
+class BlockOutputCache {
+	/** About 16 MB of vertex data. The whole cache is dropped when it grows past this. */
+	private static final int MAX_CACHED_INTS = 1 << 22;
+	/** Block states and brightness of the 3x3x3 blocks around and including the rendered block. */
+	static final int FINGERPRINT_SIZE = 27 * 2;
+
+	private static final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+	private static final AtomicInteger cachedInts = new AtomicInteger();
+
+	/** Entries made with other models, sprites or lighting settings are outdated. See {@link #validate}. */
+	private static volatile int generation = 0;
+	private static volatile BlockRouteTable routes;
+	private static volatile boolean aoEnabled;
+	private static volatile ClientWorld world;
+
+	/**
+	 * Called at the start of each chunk section. Outdates all entries if the routing table (which is rebuilt
+	 * after reloads and graphics changes), the smooth lighting option or the world changed.
+	 */
+	static synchronized void validate(BlockRouteTable routes, boolean aoEnabled) {
+		final ClientWorld world = MinecraftClient.getInstance().world;
+
+		if (routes != BlockOutputCache.routes || aoEnabled != BlockOutputCache.aoEnabled || world != BlockOutputCache.world) {
+			BlockOutputCache.routes = routes;
+			BlockOutputCache.aoEnabled = aoEnabled;
+			BlockOutputCache.world = world;
+			generation++;
+			entries.clear();
+			cachedInts.set(0);
+		}
+	}
+
+	/** Current generation, to be captured before recording starts so that outdated recordings are never replayed. */
+	static int generation() {
+		return generation;
+	}
+
+	/** Fills the given array with the fingerprint of the block at the given position. */
+	static void fingerprint(ChunkRenderInfo chunkInfo, BlockPos pos, BlockPos.Mutable searchPos, int[] fingerprint) {
+		int index = 0;
+
+		for (int x = -1; x <= 1; x++) {
+			for (int y = -1; y <= 1; y++) {
+				for (int z = -1; z <= 1; z++) {
+					searchPos.set(pos.getX() + x, pos.getY() + y, pos.getZ() + z);
+					fingerprint[index++] = ((AccessBlockState) chunkInfo.blockView.getBlockState(searchPos)).indium$getRawId();
+					// also the lookups AO does, so filling the brightness cache here is no extra work for misses
+					fingerprint[index++] = chunkInfo.cachedBrightness(searchPos);
+				}
+			}
+		}
+	}
+
+	/** Returns the output last recorded for the position if the fingerprint still matches, otherwise null. */
+	static Entry get(BlockPos pos, int[] fingerprint) {
+		final Entry entry = entries.get(pos.asLong());
+		return entry != null && entry.generation == generation && Arrays.equals(entry.fingerprint, fingerprint) ? entry : null;
+	}
+
+	static void put(BlockPos pos, Entry entry) {
+		final int size = entry.size();
+
+		if (cachedInts.addAndGet(size) > MAX_CACHED_INTS) {
+			// positions are rebuilt in no useful order, so there's nothing better to evict
+			entries.clear();
+			cachedInts.set(size);
+		}
+
+		entries.put(pos.asLong(), entry);
+	}
+
+	/**
+	 * Recorded output of one block. Per quad, {@link #quads} holds the facing ordinal and sprite id, followed by
+	 * the position (with block offset applied), color, texture coordinates and lightmap of each vertex.
+	 */
+	static class Entry {
+		static final int QUAD_STRIDE = 2 + 4 * 7;
+
+		final int generation;
+		final int[] fingerprint;
+		final int[] quads;
+		final RenderLayer[] layers;
+		final Sprite[] sprites;
+
+		Entry(int generation, int[] fingerprint, int[] quads, RenderLayer[] layers, Sprite[] sprites) {
+			this.generation = generation;
+			this.fingerprint = fingerprint;
+			this.quads = quads;
+			this.layers = layers;
+			this.sprites = sprites;
+		}
+
+		int size() {
+			return fingerprint.length + quads.length + layers.length * 2;
+		}
+	}
+}
@@ -23,6 +23,7 @@ import java.util.function.Supplier;
 
 import link.infra.indium.renderer.aocalc.AoCalculator;
 import link.infra.indium.renderer.aocalc.AoLuminanceFix;
+import link.infra.indium.renderer.helper.SingleThreadRandom;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.VertexConsumer;
@@ -32,6 +33,7 @@ import net.minecraft.util.math.Matrix4f;
 import net.minecraft.util.math.Matrix3f;
 import net.minecraft.client.util.math.MatrixStack;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
 import net.minecraft.world.BlockRenderView;
 
 import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
@@ -42,14 +44,17 @@ import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
  * Context for non-terrain block rendering.
  */
 public class BlockRenderContext extends MatrixRenderContext {
-	private final BlockRenderInfo blockInfo = new BlockRenderInfo();
+	private final CullingBlockRenderInfo blockInfo = new CullingBlockRenderInfo();
 	private final AoCalculator aoCalc = new AoCalculator(blockInfo, this::brightness, this::aoLevel);
-	private final BaseMeshConsumer meshConsumer = new BaseMeshConsumer(new QuadBufferer(this::outputBuffer), blockInfo, aoCalc, this::transform);
+	/** Shared by both consumers so that sprites are tracked together. */
+	private final QuadBufferer quadBufferer = new QuadBufferer(this::outputBuffer);
+	private final BaseMeshConsumer meshConsumer = new BaseMeshConsumer(quadBufferer, blockInfo, aoCalc, this::transform);
 	private VertexConsumer bufferBuilder;
 	private boolean didOutput = false;
 	// These are kept as fields to avoid avoid the heap allocation for a supplier.
-	// BlockModelRenderer allows the caller to supply both the random object and seed.
-	private Random random;
+	// BlockModelRenderer allows the caller to supply both the random object and seed. The caller's random is
+	// reseeded before every use anyway, so an unsynchronized one produces the same results more cheaply.
+	private final Random random = new SingleThreadRandom();
 	private long seed;
 	private final Supplier<Random> randomSupplier = () -> {
 		random.setSeed(seed);
@@ -60,19 +65,74 @@ public class BlockRenderContext extends MatrixRenderContext {
 	 * Reuse the fallback consumer from the render context used during chunk rebuild to make it properly
 	 * apply the current transforms to vanilla models.
 	 */
-	private final BaseFallbackConsumer fallbackConsumer = new BaseFallbackConsumer(new QuadBufferer(this::outputBuffer), blockInfo, aoCalc, this::transform);
+	private final BaseFallbackConsumer fallbackConsumer = new BaseFallbackConsumer(quadBufferer, blockInfo, aoCalc, this::transform);
+
+	/**
+	 * Light values around the block being rendered, indexed by {@link #lightCacheIndex(BlockPos)}. All AO samples
+	 * fall within one block of the rendered block, so a dense 3x3x3 window is enough, and much cheaper to clear
+	 * than a map. Cleared for every render call, as the world may change between calls.
+	 */
+	private final int[] brightnessCache = new int[27];
+	private final float[] aoLevelCache = new float[27];
+	private int brightnessCacheFlags;
+	private int aoLevelCacheFlags;
+	private int originX;
+	private int originY;
+	private int originZ;
+
+	/** Index of the position in the light cache, or -1 if it is outside the cached window. */
+	private int lightCacheIndex(BlockPos pos) {
+		final int x = pos.getX() - originX + 1;
+		final int y = pos.getY() - originY + 1;
+		final int z = pos.getZ() - originZ + 1;
+
+		if ((x | y | z) < 0 || x > 2 || y > 2 || z > 2) {
+			return -1;
+		}
+
+		return (y * 3 + z) * 3 + x;
+	}
 
 	private int brightness(BlockPos pos) {
-		if (blockInfo.blockView == null) {
+		final BlockRenderView blockView = blockInfo.blockView;
+
+		if (blockView == null) {
 			return 15 << 20 | 15 << 4;
 		}
 
-		return WorldRenderer.getLightmapCoordinates(blockInfo.blockView, blockInfo.blockView.getBlockState(pos), pos);
+		final int index = lightCacheIndex(pos);
+
+		if (index == -1) {
+			return WorldRenderer.getLightmapCoordinates(blockView, blockView.getBlockState(pos), pos);
+		}
+
+		if ((brightnessCacheFlags & (1 << index)) == 0) {
+			brightnessCache[index] = WorldRenderer.getLightmapCoordinates(blockView, blockView.getBlockState(pos), pos);
+			brightnessCacheFlags |= 1 << index;
+		}
+
+		return brightnessCache[index];
 	}
 
 	private float aoLevel(BlockPos pos) {
 		final BlockRenderView blockView = blockInfo.blockView;
-		return blockView == null ? 1f : AoLuminanceFix.INSTANCE.apply(blockView, pos);
+
+		if (blockView == null) {
+			return 1f;
+		}
+
+		final int index = lightCacheIndex(pos);
+
+		if (index == -1) {
+			return AoLuminanceFix.INSTANCE.apply(blockView, pos);
+		}
+
+		if ((aoLevelCacheFlags & (1 << index)) == 0) {
+			aoLevelCache[index] = AoLuminanceFix.INSTANCE.apply(blockView, pos);
+			aoLevelCacheFlags |= 1 << index;
+		}
+
+		return aoLevelCache[index];
 	}
 
 	private VertexConsumer outputBuffer(RenderLayer renderLayer) {
@@ -80,29 +140,43 @@ public class BlockRenderContext extends MatrixRenderContext {
 		return bufferBuilder;
 	}
 
-	public boolean render(BlockRenderView blockView, BakedModel model, BlockState state, BlockPos pos, MatrixStack matrixStack, VertexConsumer buffer, Random random, long seed, int overlay) {
+	public boolean render(BlockRenderView blockView, BakedModel model, BlockState state, BlockPos pos, MatrixStack matrixStack, VertexConsumer buffer, boolean checkSides, Random random, long seed, int overlay) {
 		this.bufferBuilder = buffer;
 		this.matrix = matrixStack.peek().getPositionMatrix();
 		this.normalMatrix = matrixStack.peek().getNormalMatrix();
-		this.random = random;
 		this.seed = seed;
 
 		this.overlay = overlay;
 		this.didOutput = false;
+		originX = pos.getX();
+		originY = pos.getY();
+		originZ = pos.getZ();
+		brightnessCacheFlags = 0;
+		aoLevelCacheFlags = 0;
 		aoCalc.clear();
 		blockInfo.setBlockView(blockView);
-		blockInfo.prepareForBlock(state, pos, model.useAmbientOcclusion());
+		blockInfo.checkSides = checkSides;
+		blockInfo.prepareForBlock(state, pos, model);
 
 		((FabricBakedModel) model).emitBlockQuads(blockView, state, pos, randomSupplier, this);
 
 		blockInfo.release();
 		this.bufferBuilder = null;
-		this.random = null;
 		this.seed = seed;
 
 		return didOutput;
 	}
 
+	/** Only culls faces when the caller asks for it, as blocks rendered outside of terrain usually aren't surrounded by the world. */
+	private static class CullingBlockRenderInfo extends TerrainBlockRenderInfo {
+		boolean checkSides;
+
+		@Override
+		boolean shouldDrawFace(Direction face) {
+			return !checkSides || super.shouldDrawFace(face);
+		}
+	}
+
 	private class QuadBufferer extends VertexConsumerQuadBufferer {
 		QuadBufferer(Function<RenderLayer, VertexConsumer> bufferFunc) {
 			super(bufferFunc);
@@ -16,12 +16,13 @@
 
 package link.infra.indium.renderer.render;
 
+import link.infra.indium.renderer.helper.SingleThreadRandom;
 import net.fabricmc.fabric.api.renderer.v1.material.BlendMode;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.color.block.BlockColors;
 import net.minecraft.client.render.RenderLayer;
-import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.BlockRenderView;
@@ -38,13 +39,30 @@ import java.util.function.Supplier;
  */
 public class BlockRenderInfo {
 	private final BlockColors blockColorMap = MinecraftClient.getInstance().getBlockColors();
-	public final Random random = new Random();
+	public final Random random = new SingleThreadRandom();
 	public BlockRenderView blockView;
 	public BlockPos blockPos;
 	public BlockState blockState;
+	/** Model being rendered, for diagnostics. */
+	BakedModel model;
 	public long seed;
 	boolean defaultAo;
 	RenderLayer defaultLayer;
+	/** Set per block view, as options can't change in the middle of a chunk section or render call. */
+	BlockRouteTable routes;
+	boolean aoEnabled;
+
+	/**
+	 * Diffuse shade factors of the current block view, indexed by face and whether the quad is shaded.
+	 * They only depend on the dimension, so they are looked up once per block view instead of per vertex.
+	 */
+	private final float[] diffuseShades = new float[12];
+	private int diffuseShadesValid;
+
+	/** Block colors already resolved for the current block, by color index. */
+	private final int[] colorIndices = new int[4];
+	private final int[] colors = new int[4];
+	private int colorCount;
 
 	public final Supplier<Random> randomSupplier = () -> {
 		final Random result = random;
@@ -61,25 +79,61 @@ public class BlockRenderInfo {
 
 	public void setBlockView(BlockRenderView blockView) {
 		this.blockView = blockView;
+		diffuseShadesValid = 0;
+		routes = BlockRouteTable.get();
+		aoEnabled = MinecraftClient.isAmbientOcclusionEnabled();
 	}
 
-	public void prepareForBlock(BlockState blockState, BlockPos blockPos, boolean modelAO) {
+	public void prepareForBlock(BlockState blockState, BlockPos blockPos, BakedModel model) {
 		this.blockPos = blockPos;
 		this.blockState = blockState;
+		this.model = model;
 		// in the unlikely case seed actually matches this, we'll simply retrieve it more than one
 		seed = -1L;
-		defaultAo = modelAO && MinecraftClient.isAmbientOcclusionEnabled() && blockState.getLuminance() == 0;
+		colorCount = 0;
+		defaultAo = model.useAmbientOcclusion() && aoEnabled && routes.isAoEligible(blockState);
 
-		defaultLayer = RenderLayers.getBlockLayer(blockState);
+		defaultLayer = routes.defaultLayer(blockState);
 	}
 
 	public void release() {
 		blockPos = null;
 		blockState = null;
+		model = null;
 	}
 
+	/**
+	 * Block color for the color index. Providers for biome-tinted blocks blend colors over a radius of
+	 * columns, so each color index is only resolved once per block rather than once per quad.
+	 */
 	int blockColor(int colorIndex) {
-		return 0xFF000000 | blockColorMap.getColor(blockState, blockView, blockPos, colorIndex);
+		for (int i = 0; i < colorCount; i++) {
+			if (colorIndices[i] == colorIndex) {
+				return colors[i];
+			}
+		}
+
+		final int color = 0xFF000000 | blockColorMap.getColor(blockState, blockView, blockPos, colorIndex);
+
+		if (colorCount < colorIndices.length) {
+			colorIndices[colorCount] = colorIndex;
+			colors[colorCount] = color;
+			colorCount++;
+		}
+
+		return color;
+	}
+
+	/** Same as {@link BlockRenderView#getBrightness(Direction, boolean)} for the current block view. */
+	public float diffuseShade(Direction face, boolean shade) {
+		final int index = shade ? face.getId() + 6 : face.getId();
+
+		if ((diffuseShadesValid & (1 << index)) == 0) {
+			diffuseShades[index] = blockView.getBrightness(face, shade);
+			diffuseShadesValid |= 1 << index;
+		}
+
+		return diffuseShades[index];
 	}
 
 	boolean shouldDrawFace(Direction face) {
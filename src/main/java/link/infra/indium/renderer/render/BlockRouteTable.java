@@ -0,0 +1,129 @@
+package link.infra.indium.renderer.render;
+
+import link.infra.indium.Indium;
+import link.infra.indium.other.AccessBlockState;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.other.StateIdCounter;
+import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.block.AbstractBlock;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.MinecraftClient;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.RenderLayers;
+import net.minecraft.client.render.block.BlockModels;
+import net.minecraft.client.render.model.BakedModel;
+
+/**
+ * Per-block-state rendering decisions that would otherwise be made again for every block: whether Indium
+ * or Sodium renders the model, the default render layer, whether the state can use AO, and whether it has
+ * a model offset. Routes can be overridden by {@link link.infra.indium.other.RouteOverrides}. Indexed by block
+ * state raw id, and rebuilt after resource reloads, when registry sync remaps raw ids, and when the graphics mode
+ * changes, which is the only option that affects any of these.
+ *
+ * <p>The AO option itself is not part of the table; it is read once per block view by {@link BlockRenderInfo}.
+ */
+public class BlockRouteTable {
+	private static final int ROUTE_INDIUM = 1;
+	/** The state doesn't emit light, which disables AO. Models may still disable AO on their own. */
+	private static final int AO_ELIGIBLE = 2;
+	private static final int HAS_OFFSET = 4;
+
+	private static volatile BlockRouteTable current;
+
+	private final int reload;
+	private final int remap;
+	private final boolean fancyGraphics;
+	private final int[] flags;
+	private final RenderLayer[] layers;
+	/** Models the routes were decided for, as callers may render a different model than the default one. */
+	private final BakedModel[] models;
+
+	private BlockRouteTable(int reload, int remap, boolean fancyGraphics) {
+		this.reload = reload;
+		this.remap = remap;
+		this.fancyGraphics = fancyGraphics;
+
+		final int size = Block.STATE_IDS.size();
+		final BlockModels blockModels = MinecraftClient.getInstance().getBakedModelManager().getBlockModels();
+		flags = new int[size];
+		layers = new RenderLayer[size];
+		models = new BakedModel[size];
+
+		for (BlockState state : Block.STATE_IDS) {
+			final int id = Block.STATE_IDS.getRawId(state);
+			final BakedModel model = blockModels.getModel(state);
+			int stateFlags = 0;
+
+			if (decideRoute(state, model)) {
+				stateFlags |= ROUTE_INDIUM;
+			}
+
+			if (state.getLuminance() == 0) {
+				stateFlags |= AO_ELIGIBLE;
+			}
+
+			if (state.getBlock().getOffsetType() != AbstractBlock.OffsetType.NONE) {
+				stateFlags |= HAS_OFFSET;
+			}
+
+			flags[id] = stateFlags;
+			layers[id] = RenderLayers.getBlockLayer(state);
+			models[id] = model;
+		}
+	}
+
+	/** The table for the current resources and options, built if needed. Callers should keep it for a whole chunk section or render call. */
+	public static BlockRouteTable get() {
+		final int reload = ReloadCounter.current();
+		final int remap = StateIdCounter.current();
+		final boolean fancyGraphics = MinecraftClient.isFancyGraphicsOrBetter();
+		BlockRouteTable table = current;
+
+		if (table == null || table.reload != reload || table.remap != remap || table.fancyGraphics != fancyGraphics) {
+			// building twice in a race is harmless, as the result is the same
+			table = new BlockRouteTable(reload, remap, fancyGraphics);
+			current = table;
+		}
+
+		return table;
+	}
+
+	/** True if Indium should render the model, false if it can be left to Sodium. */
+	public boolean routeToIndium(BlockState state, BakedModel model) {
+		final int id = ((AccessBlockState) state).indium$getRawId();
+
+		if (id < 0 || id >= models.length || models[id] != model) {
+			return decideRoute(state, model);
+		}
+
+		return (flags[id] & ROUTE_INDIUM) != 0;
+	}
+
+	/** Configured route for the block if there is one, otherwise Indium unless the model is a vanilla adapter. */
+	private static boolean decideRoute(BlockState state, BakedModel model) {
+		final TriState override = Indium.ROUTE_OVERRIDES.route(state, model);
+
+		if (override != TriState.DEFAULT) {
+			return override.get();
+		}
+
+		return Indium.ALWAYS_TESSELATE_INDIUM || !((FabricBakedModel) model).isVanillaAdapter();
+	}
+
+	public boolean hasOffset(BlockState state) {
+		final int id = ((AccessBlockState) state).indium$getRawId();
+		return id < 0 || id >= flags.length || (flags[id] & HAS_OFFSET) != 0;
+	}
+
+	boolean isAoEligible(BlockState state) {
+		final int id = ((AccessBlockState) state).indium$getRawId();
+		return id < 0 || id >= flags.length ? state.getLuminance() == 0 : (flags[id] & AO_ELIGIBLE) != 0;
+	}
+
+	RenderLayer defaultLayer(BlockState state) {
+		final int id = ((AccessBlockState) state).indium$getRawId();
+		return id < 0 || id >= layers.length ? RenderLayers.getBlockLayer(state) : layers[id];
+	}
+}
@@ -1,15 +1,18 @@
 package link.infra.indium.renderer.render;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Function;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import link.infra.indium.other.SpriteFinderCache;
+import link.infra.indium.renderer.helper.GeometryHelper;
 import link.infra.indium.renderer.mesh.MutableQuadViewImpl;
 import me.jellysquid.mods.sodium.client.model.IndexBufferBuilder;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadFacing;
 import me.jellysquid.mods.sodium.client.model.quad.properties.ModelQuadWinding;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
 import me.jellysquid.mods.sodium.client.render.chunk.format.ModelVertexSink;
-import me.jellysquid.mods.sodium.client.util.color.ColorABGR;
 import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.texture.Sprite;
 import net.minecraft.util.math.Direction;
@@ -17,8 +20,30 @@ import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.Vec3i;
 
 public abstract class ChunkQuadBufferer implements BaseQuadRenderer.QuadBufferer {
+	/** Number of quads to reserve vertex capacity for at once, instead of checking capacity for every quad. */
+	private static final int RESERVE_QUADS = 16;
+	private static final ModelQuadFacing[] FACINGS = ModelQuadFacing.values();
+
 	protected final Function<RenderLayer, ChunkModelBuilder> builderFunc;
 
+	/**
+	 * Vertex sinks written to since the last {@link #flush()}, with the number of quads still reserved in each.
+	 * Several render layers can share a builder, so there are never more sinks than block layers.
+	 */
+	private final ModelVertexSink[] pendingSinks = new ModelVertexSink[RenderLayer.getBlockLayers().size()];
+	private final int[] pendingReserved = new int[pendingSinks.length];
+	private int pendingCount = 0;
+
+	/** Sprites already added to the chunk's render data, which is shared by all builders of a section. */
+	private final SpriteEpochSet sectionSprites = new SpriteEpochSet();
+
+	/** Output of the current block, for {@link BlockOutputCache}. See {@link BlockOutputCache.Entry} for the layout. */
+	private final IntArrayList recordedQuads = new IntArrayList();
+	private final List<RenderLayer> recordedLayers = new ArrayList<>();
+	private final List<Sprite> recordedSprites = new ArrayList<>();
+	private boolean isRecording = false;
+	private int recordingGeneration;
+
 	protected abstract Vec3i origin();
 
 	protected abstract Vec3d blockOffset();
@@ -27,34 +52,183 @@ public abstract class ChunkQuadBufferer implements BaseQuadRenderer.QuadBufferer
 		this.builderFunc = builderFunc;
 	}
 
+	/** Called at the start of each chunk section. */
+	public void prepare() {
+		sectionSprites.reset();
+	}
+
 	@Override
 	public void bufferQuad(MutableQuadViewImpl quad, RenderLayer renderLayer) {
-		bufferQuad(builderFunc.apply(renderLayer), quad, origin(), blockOffset());
+		final ChunkModelBuilder builder = builderFunc.apply(renderLayer);
+		final ModelVertexSink vertices = builder.getVertexSink();
+		reserveQuad(vertices);
+		final Sprite sprite = bufferQuad(builder, vertices, quad, origin(), blockOffset(), sectionSprites);
+
+		if (isRecording) {
+			record(quad, renderLayer, sprite);
+		}
 	}
 
-	public static void bufferQuad(ChunkModelBuilder builder, MutableQuadViewImpl quad, Vec3i origin, Vec3d blockOffset) {
-		ModelVertexSink vertices = builder.getVertexSink();
-		vertices.ensureCapacity(4);
+	/** Starts recording the quads of the current block. */
+	void startRecording() {
+		recordedQuads.clear();
+		recordedLayers.clear();
+		recordedSprites.clear();
+		recordingGeneration = BlockOutputCache.generation();
+		isRecording = true;
+	}
+
+	/** Stops recording and returns what was output since {@link #startRecording()}. */
+	BlockOutputCache.Entry finishRecording(int[] fingerprint) {
+		isRecording = false;
+		return new BlockOutputCache.Entry(recordingGeneration, fingerprint, recordedQuads.toIntArray(), recordedLayers.toArray(new RenderLayer[0]), recordedSprites.toArray(new Sprite[0]));
+	}
 
-		Direction cullFace = quad.cullFace();
-		IndexBufferBuilder indices = builder.getIndexBufferBuilder(cullFace != null ? ModelQuadFacing.fromDirection(cullFace) : ModelQuadFacing.UNASSIGNED);
+	private void record(MutableQuadViewImpl quad, RenderLayer renderLayer, Sprite sprite) {
+		final IntArrayList data = recordedQuads;
+		final Vec3d blockOffset = blockOffset();
+		final float offsetX = (float) blockOffset.getX();
+		final float offsetY = (float) blockOffset.getY();
+		final float offsetZ = (float) blockOffset.getZ();
 
-		int vertexStart = vertices.getVertexCount();
+		data.add(facing(quad, blockOffset).ordinal());
+		data.add(quad.spriteId());
 
 		for (int i = 0; i < 4; i++) {
-			float x = quad.x(i) + (float) blockOffset.getX();
-			float y = quad.y(i) + (float) blockOffset.getY();
-			float z = quad.z(i) + (float) blockOffset.getZ();
+			data.add(Float.floatToRawIntBits(quad.x(i) + offsetX));
+			data.add(Float.floatToRawIntBits(quad.y(i) + offsetY));
+			data.add(Float.floatToRawIntBits(quad.z(i) + offsetZ));
+			data.add(quad.spriteColor(i, 0));
+			data.add(Float.floatToRawIntBits(quad.spriteU(i, 0)));
+			data.add(Float.floatToRawIntBits(quad.spriteV(i, 0)));
+			data.add(quad.lightmap(i));
+		}
+
+		recordedLayers.add(renderLayer);
+		recordedSprites.add(sprite);
+	}
+
+	/** Outputs quads recorded for an earlier build, as if the block had been tesselated again. */
+	void replay(BlockOutputCache.Entry entry) {
+		final int[] data = entry.quads;
+		final Vec3i origin = origin();
+
+		for (int q = 0; q < entry.layers.length; q++) {
+			final ChunkModelBuilder builder = builderFunc.apply(entry.layers[q]);
+			final ModelVertexSink vertices = builder.getVertexSink();
+			reserveQuad(vertices);
+
+			int index = q * BlockOutputCache.Entry.QUAD_STRIDE;
+			final IndexBufferBuilder indices = builder.getIndexBufferBuilder(FACINGS[data[index++]]);
+			final int spriteId = data[index++];
+			final int vertexStart = vertices.getVertexCount();
+			final int chunkId = builder.getChunkId();
+
+			for (int i = 0; i < 4; i++) {
+				vertices.writeVertex(origin, Float.intBitsToFloat(data[index]), Float.intBitsToFloat(data[index + 1]), Float.intBitsToFloat(data[index + 2]), data[index + 3], Float.intBitsToFloat(data[index + 4]), Float.intBitsToFloat(data[index + 5]), data[index + 6], chunkId);
+				index += 7;
+			}
+
+			indices.add(vertexStart, ModelQuadWinding.CLOCKWISE);
+
+			if (sectionSprites.add(entry.sprites[q], spriteId)) {
+				builder.addSprite(entry.sprites[q]);
+			}
+		}
+	}
+
+	/**
+	 * Makes sure there is room for one more quad in the given sink, reserving
+	 * capacity for {@link #RESERVE_QUADS} quads at a time. Once those are used up,
+	 * the sink is flushed before reserving again.
+	 */
+	private void reserveQuad(ModelVertexSink vertices) {
+		final ModelVertexSink[] pendingSinks = this.pendingSinks;
+		int index = 0;
+
+		while (index < pendingCount && pendingSinks[index] != vertices) {
+			index++;
+		}
 
-			int color = quad.spriteColor(i, 0);
-			color = ColorABGR.pack(color & 0xFF, (color >> 8) & 0xFF, (color >> 16) & 0xFF, (color >> 24) & 0xFF);
+		if (index == pendingCount) {
+			if (index == pendingSinks.length) {
+				// shouldn't happen, but stay correct if a layer maps to an unexpected builder
+				flush();
+				index = 0;
+			}
+
+			pendingSinks[index] = vertices;
+			pendingReserved[index] = 0;
+			pendingCount++;
+		} else if (pendingReserved[index] == 0) {
+			// like Sodium, never grow a sink that still holds unflushed vertices
+			vertices.flush();
+		}
 
-			float u = quad.spriteU(i, 0);
-			float v = quad.spriteV(i, 0);
+		if (pendingReserved[index] == 0) {
+			vertices.ensureCapacity(RESERVE_QUADS * 4);
+			pendingReserved[index] = RESERVE_QUADS;
+		}
 
-			int lm = quad.lightmap(i);
+		pendingReserved[index]--;
+	}
 
-			vertices.writeVertex(origin, x, y, z, color, u, v, lm, builder.getChunkId());
+	/**
+	 * Flushes all vertices written since the last call. Called once per block
+	 * rather than once per quad.
+	 */
+	public void flush() {
+		for (int i = 0; i < pendingCount; i++) {
+			pendingSinks[i].flush();
+			pendingSinks[i] = null;
+		}
+
+		pendingCount = 0;
+	}
+
+	/**
+	 * Facing bucket for Sodium's per-direction culling. Quads without a cull face can still be put in a bucket when
+	 * they are planar and axis-aligned, as their normal then matches the light face exactly and they can't be seen
+	 * from behind that plane. Positions are still relative to the block here, so the block offset is added to the
+	 * plane before checking it.
+	 */
+	private static ModelQuadFacing facing(MutableQuadViewImpl quad, Vec3d blockOffset) {
+		final Direction cullFace = quad.cullFace();
+
+		if (cullFace != null) {
+			return ModelQuadFacing.fromDirection(cullFace);
+		}
+
+		if ((quad.geometryFlags() & GeometryHelper.AXIS_ALIGNED_FLAG) != 0) {
+			final Direction lightFace = quad.lightFace();
+			final Direction.Axis axis = lightFace.getAxis();
+			final float plane = quad.posByIndex(0, axis.ordinal()) + (float) blockOffset.getComponentAlongAxis(axis);
+
+			// Sodium culls buckets by the section's bounds, so the plane must not stick out of the block
+			if (plane >= 0 && plane <= 1) {
+				return ModelQuadFacing.fromDirection(lightFace);
+			}
+		}
+
+		return ModelQuadFacing.UNASSIGNED;
+	}
+
+	/**
+	 * Writes all four vertices of the quad. Caller is responsible for reserving
+	 * capacity in the vertex sink beforehand and for flushing it afterwards. Returns the quad's sprite.
+	 */
+	public static Sprite bufferQuad(ChunkModelBuilder builder, ModelVertexSink vertices, MutableQuadViewImpl quad, Vec3i origin, Vec3d blockOffset, SpriteEpochSet sectionSprites) {
+		IndexBufferBuilder indices = builder.getIndexBufferBuilder(facing(quad, blockOffset));
+
+		final int vertexStart = vertices.getVertexCount();
+		final float offsetX = (float) blockOffset.getX();
+		final float offsetY = (float) blockOffset.getY();
+		final float offsetZ = (float) blockOffset.getZ();
+		final int chunkId = builder.getChunkId();
+
+		for (int i = 0; i < 4; i++) {
+			// Repacking the color components with ColorABGR.pack would give back the same value, so write it as-is
+			vertices.writeVertex(origin, quad.x(i) + offsetX, quad.y(i) + offsetY, quad.z(i) + offsetZ, quad.spriteColor(i, 0), quad.spriteU(i, 0), quad.spriteV(i, 0), quad.lightmap(i), chunkId);
 		}
 
 		indices.add(vertexStart, ModelQuadWinding.CLOCKWISE);
@@ -62,11 +236,13 @@ public abstract class ChunkQuadBufferer implements BaseQuadRenderer.QuadBufferer
 		Sprite sprite = quad.cachedSprite();
 
 		if (sprite == null) {
-			sprite = SpriteFinderCache.forBlockAtlas().find(quad, 0);
+			sprite = SpriteFinderCache.findBlockSprite(quad);
 		}
 
-		builder.addSprite(sprite);
+		if (sectionSprites.add(sprite, quad.spriteId())) {
+			builder.addSprite(sprite);
+		}
 
-		vertices.flush();
+		return sprite;
 	}
 }
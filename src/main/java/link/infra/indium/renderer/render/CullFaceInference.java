@@ -0,0 +1,110 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import link.infra.indium.Indium;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.renderer.helper.GeometryHelper;
+import link.infra.indium.renderer.mesh.MutableQuadViewImpl;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Infers a cull face for quads that lie exactly on a block face but were emitted without one, so they can be
+ * culled against solid neighbors like vanilla quads. The inferred face is only used for the culling test;
+ * the quad keeps its declared faces for lighting.
+ *
+ * <p>Only enabled with {@link Indium#INFER_CULL_FACES}, as a neighbor that only partly covers the face can
+ * hide a quad that should have been visible. Counts of inferred and skipped quads per model class are logged
+ * when resources reload.
+ */
+class CullFaceInference {
+	private static final float EPS = 1e-4f;
+
+	private static final Map<Class<?>, Counts> counts = new ConcurrentHashMap<>();
+	private static volatile int reload = ReloadCounter.current();
+
+	/** Face to test for culling: the quad's cull face, or an inferred one if enabled and the quad is on a block face. */
+	static Direction cullFace(MutableQuadViewImpl quad) {
+		final Direction cullFace = quad.cullFace();
+
+		if (cullFace != null || !Indium.INFER_CULL_FACES) {
+			return cullFace;
+		}
+
+		if ((quad.geometryFlags() & GeometryHelper.LIGHT_FACE_FLAG) == 0) {
+			return null;
+		}
+
+		// the flag is also set for quads beyond the face, which aren't necessarily hidden by the neighbor
+		final Direction lightFace = quad.lightFace();
+		final float plane = quad.posByIndex(0, lightFace.getAxis().ordinal());
+		final float face = lightFace.getDirection() == Direction.AxisDirection.POSITIVE ? 1 : 0;
+
+		if (Math.abs(plane - face) > EPS || !isWithinFace(quad, lightFace.getAxis().ordinal())) {
+			return null;
+		}
+
+		return lightFace;
+	}
+
+	/** True if all vertices are within the block on the two axes other than the given one. */
+	private static boolean isWithinFace(MutableQuadViewImpl quad, int axis) {
+		for (int i = 0; i < 4; i++) {
+			for (int j = 0; j < 3; j++) {
+				if (j != axis) {
+					final float pos = quad.posByIndex(i, j);
+
+					if (pos < -EPS || pos > 1 + EPS) {
+						return false;
+					}
+				}
+			}
+		}
+
+		return true;
+	}
+
+	/** Records the outcome for a quad whose cull face was inferred. */
+	static void count(Object model, boolean skipped) {
+		if (reload != ReloadCounter.current()) {
+			logReport();
+		}
+
+		final Counts modelCounts = counts.computeIfAbsent(model == null ? Object.class : model.getClass(), c -> new Counts());
+		modelCounts.inferred.increment();
+
+		if (skipped) {
+			modelCounts.skipped.increment();
+		}
+	}
+
+	private static synchronized void logReport() {
+		final int reload = ReloadCounter.current();
+
+		if (CullFaceInference.reload == reload) {
+			return;
+		}
+
+		CullFaceInference.reload = reload;
+
+		if (counts.isEmpty()) {
+			return;
+		}
+
+		final StringBuilder report = new StringBuilder("[Indium] Quads with inferred cull faces, by model class (inferred / skipped):");
+
+		for (Map.Entry<Class<?>, Counts> entry : counts.entrySet()) {
+			report.append("\n  ").append(entry.getKey().getName()).append(": ").append(entry.getValue().inferred.sum()).append(" / ").append(entry.getValue().skipped.sum());
+		}
+
+		Indium.LOGGER.info(report.toString());
+		counts.clear();
+	}
+
+	private static class Counts {
+		final LongAdder inferred = new LongAdder();
+		final LongAdder skipped = new LongAdder();
+	}
+}
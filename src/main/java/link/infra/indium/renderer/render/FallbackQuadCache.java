@@ -0,0 +1,116 @@
+package link.infra.indium.renderer.render;
+
+import java.util.List;
+import java.util.Random;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.renderer.IndiumRenderer;
+import link.infra.indium.renderer.mesh.EncodingFormat;
+import link.infra.indium.renderer.mesh.MutableQuadViewImpl;
+import net.fabricmc.fabric.api.renderer.v1.model.ModelHelper;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.BasicBakedModel;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Holds vanilla item model quads already converted to Indium's quad encoding, for item rendering with a
+ * {@code QuadTransform} in effect. Only {@link BasicBakedModel}s are cached, as their quads are fixed once baked.
+ * Other models may return different quads each time.
+ *
+ * <p>Not thread-safe; each {@link ItemRenderContext} has its own.
+ */
+class FallbackQuadCache {
+	/** The cache is simply cleared when it grows past this, which only happens with a lot of distinct models. */
+	private static final int MAX_ENTRIES = 1024;
+
+	private final Reference2ObjectOpenHashMap<BakedModel, Quads> entries = new Reference2ObjectOpenHashMap<>();
+	private int reload = ReloadCounter.current();
+
+	static boolean isCacheable(BakedModel model) {
+		return model.getClass() == BasicBakedModel.class;
+	}
+
+	/**
+	 * Converted quads of the model, for all faces in {@link ModelHelper} face index order.
+	 * The model must be {@link #isCacheable(BakedModel) cacheable}.
+	 */
+	Quads get(BakedModel model, Random random, long seed, MutableQuadViewImpl editorQuad) {
+		final int reload = ReloadCounter.current();
+
+		if (reload != this.reload) {
+			this.reload = reload;
+			entries.clear();
+		}
+
+		Quads quads = entries.get(model);
+
+		if (quads == null) {
+			if (entries.size() >= MAX_ENTRIES) {
+				entries.clear();
+			}
+
+			quads = new Quads(model, random, seed, editorQuad);
+			entries.put(model, quads);
+		}
+
+		return quads;
+	}
+
+	static class Quads {
+		final int count;
+		final int[] data;
+		final Sprite[] sprites;
+		final boolean[] shade;
+		final Direction[] nominalFaces;
+
+		@SuppressWarnings("unchecked")
+		private Quads(BakedModel model, Random random, long seed, MutableQuadViewImpl editorQuad) {
+			final List<BakedQuad>[] faceQuads = new List[ModelHelper.NULL_FACE_ID + 1];
+			int count = 0;
+
+			for (int i = 0; i <= ModelHelper.NULL_FACE_ID; i++) {
+				random.setSeed(seed);
+				faceQuads[i] = model.getQuads((BlockState) null, ModelHelper.faceFromIndex(i), random);
+				count += faceQuads[i].size();
+			}
+
+			this.count = count;
+			data = new int[count * EncodingFormat.TOTAL_STRIDE];
+			sprites = new Sprite[count];
+			shade = new boolean[count];
+			nominalFaces = new Direction[count];
+
+			int index = 0;
+
+			for (int i = 0; i <= ModelHelper.NULL_FACE_ID; i++) {
+				final Direction cullFace = ModelHelper.faceFromIndex(i);
+
+				for (final BakedQuad q : faceQuads[i]) {
+					editorQuad.fromVanilla(q, IndiumRenderer.MATERIAL_STANDARD, cullFace);
+					// encode light face and geometry flags, so they don't need to be computed again
+					editorQuad.geometryFlags();
+					System.arraycopy(editorQuad.data(), editorQuad.vertexStart() - EncodingFormat.HEADER_STRIDE, data, index * EncodingFormat.TOTAL_STRIDE, EncodingFormat.TOTAL_STRIDE);
+					sprites[index] = q.getSprite();
+					shade[index] = q.hasShade();
+					nominalFaces[index] = q.getFace();
+					index++;
+				}
+			}
+
+			editorQuad.clear();
+		}
+
+		/** Loads the quad at the given index into the editor quad. */
+		void load(MutableQuadViewImpl editorQuad, int index) {
+			System.arraycopy(data, index * EncodingFormat.TOTAL_STRIDE, editorQuad.data(), editorQuad.vertexStart() - EncodingFormat.HEADER_STRIDE, EncodingFormat.TOTAL_STRIDE);
+			editorQuad.load();
+			editorQuad.nominalFace(nominalFaces[index]);
+			editorQuad.cachedSprite(sprites[index]);
+			editorQuad.shade(shade[index]);
+		}
+	}
+}
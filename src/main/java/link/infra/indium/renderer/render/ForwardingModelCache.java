@@ -0,0 +1,142 @@
+package link.infra.indium.renderer.render;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import link.infra.indium.Indium;
+import link.infra.indium.other.AccessBlockState;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.other.StateIdCounter;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.util.math.BlockPos;
+
+/**
+ * Finds block models that aren't vanilla adapters but whose emission only passes another model to the fallback
+ * consumer, with no transform active. Such wrappers render exactly like the wrapped model, so once
+ * {@link #VERIFY_SAMPLES} emissions at different positions have forwarded to the same model, terrain rendering
+ * hands the wrapped model to Sodium's block renderer instead. Anything else marks the model as not forwarding for
+ * that state until the next resource reload.
+ *
+ * <p>Enabled by {@link Indium#PROMOTE_FORWARDING_MODELS}. Shared between all terrain build threads.
+ */
+class ForwardingModelCache {
+	private static final int VERIFY_SAMPLES = 8;
+
+	private static volatile Entry[] entries = new Entry[0];
+	private static volatile int reload = -1;
+	private static volatile int remap = -1;
+
+	/** Model classes promoted since the last reload, so that each is only logged once. */
+	private static final Set<Class<?>> promotedClasses = new HashSet<>();
+
+	/**
+	 * Entry for the state, or null if the model isn't a candidate. Until the entry has a forwarded model, callers
+	 * should observe an emission and {@link Entry#offer} the result.
+	 */
+	static Entry get(BlockState state, BakedModel model) {
+		if (!Indium.PROMOTE_FORWARDING_MODELS || Indium.ALWAYS_TESSELATE_INDIUM) {
+			return null;
+		}
+
+		Entry[] entries = ForwardingModelCache.entries;
+
+		if (reload != ReloadCounter.current() || remap != StateIdCounter.current() || entries.length != Block.STATE_IDS.size()) {
+			entries = reset();
+		}
+
+		final int id = ((AccessBlockState) state).indium$getRawId();
+
+		if (id < 0 || id >= entries.length) {
+			return null;
+		}
+
+		Entry entry = entries[id];
+
+		if (entry == null || entry.model != model) {
+			// a benign race: another thread may replace this, losing only some samples
+			entry = new Entry(model);
+			// blocks explicitly routed to Indium stay there
+			entry.isRejected = Indium.ROUTE_OVERRIDES.route(state, model) == TriState.TRUE;
+			entries[id] = entry;
+		}
+
+		return entry.isRejected || entry.forwarded != null ? null : entry;
+	}
+
+	/** The model the state's model was found to forward to, or null. */
+	static BakedModel forwarded(BlockState state, BakedModel model) {
+		final Entry[] entries = ForwardingModelCache.entries;
+		final int id = ((AccessBlockState) state).indium$getRawId();
+
+		if (id < 0 || id >= entries.length) {
+			return null;
+		}
+
+		final Entry entry = entries[id];
+		return entry == null || entry.model != model ? null : entry.forwarded;
+	}
+
+	private static synchronized Entry[] reset() {
+		final int reload = ReloadCounter.current();
+		final int remap = StateIdCounter.current();
+
+		if (ForwardingModelCache.reload != reload || ForwardingModelCache.remap != remap || entries.length != Block.STATE_IDS.size()) {
+			entries = new Entry[Block.STATE_IDS.size()];
+			promotedClasses.clear();
+			ForwardingModelCache.reload = reload;
+			ForwardingModelCache.remap = remap;
+		}
+
+		return entries;
+	}
+
+	private static synchronized void logPromoted(BakedModel model) {
+		if (promotedClasses.add(model.getClass())) {
+			Indium.LOGGER.info("[Indium] Model class '{}' only forwards to the fallback consumer, rendering it with Sodium's block renderer", model.getClass().getName());
+		}
+	}
+
+	static class Entry {
+		private final BakedModel model;
+		private BakedModel sample;
+		/** Positions sampled so far, as emissions repeated at one position say nothing about other positions. */
+		private final LongOpenHashSet samplePositions = new LongOpenHashSet();
+		private volatile boolean isRejected;
+		private volatile BakedModel forwarded;
+
+		private Entry(BakedModel model) {
+			this.model = model;
+		}
+
+		/**
+		 * Adds the result of observing one emission: the model passed to the fallback consumer if that was all the
+		 * emission did, otherwise null.
+		 */
+		synchronized void offer(BlockPos pos, BakedModel target) {
+			if (isRejected || forwarded != null) {
+				return;
+			}
+
+			// the fallback consumer lights by the outer model's AO setting, Sodium would use the target's
+			if (target == null || target.useAmbientOcclusion() != model.useAmbientOcclusion() || (sample != null && sample != target)) {
+				isRejected = true;
+				sample = null;
+				samplePositions.clear();
+				return;
+			}
+
+			sample = target;
+
+			if (samplePositions.add(pos.asLong()) && samplePositions.size() >= VERIFY_SAMPLES) {
+				forwarded = target;
+				sample = null;
+				samplePositions.clear();
+				logPromoted(model);
+			}
+		}
+	}
+}
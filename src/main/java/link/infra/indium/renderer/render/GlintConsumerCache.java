@@ -0,0 +1,119 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Map;
+import java.util.Optional;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import link.infra.indium.other.AccessImmediate;
+import link.infra.indium.other.FrameCounter;
+import net.minecraft.client.render.BufferBuilder;
+import net.minecraft.client.render.RenderLayer;
+import net.minecraft.client.render.VertexConsumer;
+import net.minecraft.client.render.VertexConsumerProvider;
+import net.minecraft.client.render.item.ItemRenderer;
+
+/**
+ * Caches the vertex consumers returned by {@link ItemRenderer#getArmorGlintConsumer} per render layer and glint,
+ * so that enchanted items don't allocate a new dual consumer every time they are rendered.
+ *
+ * <p>A consumer can only be reused while the buffers behind it stay valid. Entries are only kept for
+ * {@link VertexConsumerProvider.Immediate} providers whose buffers are dedicated to a single layer, are checked
+ * to still be building before reuse, and are dropped when the provider changes or a new frame starts. Entries
+ * are also bypassed while a layer without a dedicated buffer is pending, as fetching the buffer would draw it.
+ */
+class GlintConsumerCache {
+	private final Reference2ObjectOpenHashMap<RenderLayer, Entry> plain = new Reference2ObjectOpenHashMap<>();
+	private final Reference2ObjectOpenHashMap<RenderLayer, Entry> glint = new Reference2ObjectOpenHashMap<>();
+
+	private VertexConsumerProvider provider;
+	private int frame;
+
+	/** Buffers returned by the provider while resolving a consumer, or null if any of them can't be cached. */
+	private final BufferBuilder[] resolvedBuffers = new BufferBuilder[2];
+	private int resolvedCount;
+	private boolean resolvedCacheable;
+
+	private final VertexConsumerProvider recordingProvider = layer -> {
+		final VertexConsumer consumer = provider.getBuffer(layer);
+
+		if (consumer instanceof BufferBuilder buffer && resolvedCount < resolvedBuffers.length && isDedicated(buffer)) {
+			resolvedBuffers[resolvedCount++] = buffer;
+		} else {
+			resolvedCacheable = false;
+		}
+
+		return consumer;
+	};
+
+	VertexConsumer get(VertexConsumerProvider provider, RenderLayer layer, boolean hasGlint) {
+		if (!(provider instanceof VertexConsumerProvider.Immediate)) {
+			return ItemRenderer.getArmorGlintConsumer(provider, layer, true, hasGlint);
+		}
+
+		final int frame = FrameCounter.current();
+
+		if (provider != this.provider || frame != this.frame) {
+			this.provider = provider;
+			this.frame = frame;
+			plain.clear();
+			glint.clear();
+		}
+
+		final Reference2ObjectOpenHashMap<RenderLayer, Entry> entries = hasGlint ? glint : plain;
+
+		if (isCurrentLayerDedicated()) {
+			final Entry entry = entries.get(layer);
+
+			if (entry != null && entry.isValid()) {
+				return entry.consumer;
+			}
+		}
+
+		resolvedCount = 0;
+		resolvedCacheable = true;
+		final VertexConsumer consumer = ItemRenderer.getArmorGlintConsumer(recordingProvider, layer, true, hasGlint);
+
+		if (resolvedCacheable) {
+			entries.put(layer, new Entry(consumer, resolvedCount == 1 ? new BufferBuilder[] { resolvedBuffers[0] } : new BufferBuilder[] { resolvedBuffers[0], resolvedBuffers[1] }));
+		} else {
+			entries.remove(layer);
+		}
+
+		resolvedBuffers[0] = null;
+		resolvedBuffers[1] = null;
+		return consumer;
+	}
+
+	/** True if the buffer belongs to a single layer, unlike the fallback buffer which is shared by all other layers. */
+	private boolean isDedicated(BufferBuilder buffer) {
+		return buffer != ((AccessImmediate) provider).indium$getFallbackBuffer();
+	}
+
+	/** True unless a layer using the fallback buffer is waiting to be drawn when another layer is fetched. */
+	private boolean isCurrentLayerDedicated() {
+		final AccessImmediate immediate = (AccessImmediate) provider;
+		final Optional<RenderLayer> currentLayer = immediate.indium$getCurrentLayer();
+		final Map<RenderLayer, BufferBuilder> layerBuffers = immediate.indium$getLayerBuffers();
+		return currentLayer.isEmpty() || layerBuffers.containsKey(currentLayer.get());
+	}
+
+	private static class Entry {
+		private final VertexConsumer consumer;
+		private final BufferBuilder[] buffers;
+
+		private Entry(VertexConsumer consumer, BufferBuilder[] buffers) {
+			this.consumer = consumer;
+			this.buffers = buffers;
+		}
+
+		boolean isValid() {
+			for (BufferBuilder buffer : buffers) {
+				if (!buffer.isBuilding()) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+}
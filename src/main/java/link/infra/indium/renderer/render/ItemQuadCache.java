@@ -0,0 +1,149 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.renderer.mesh.EncodingFormat;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.json.ModelTransformation.Mode;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+
+/**
+ * Remembers the quads an item model emitted, after transforms and coloring but before lighting and the
+ * matrix transform, so that later frames can skip straight to output. Entries are keyed by model, transform
+ * mode and a fingerprint of the stack, and the least recently used ones are evicted once the cache holds more
+ * than {@link #MAX_CACHED_INTS} ints of quad data.
+ *
+ * <p>Assumes that models emit the same quads for stacks with the same fingerprint, which is why it is opt-in.
+ * Not thread-safe; each {@link ItemRenderContext} has its own.
+ */
+class ItemQuadCache {
+	/** About 4 MB of quad data. */
+	private static final int MAX_CACHED_INTS = 1 << 20;
+	/** Models emitting more than this are not worth caching, and would evict too much. */
+	private static final int MAX_ENTRY_INTS = MAX_CACHED_INTS / 64;
+
+	private final Map<Key, int[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+	private int cachedInts = 0;
+	private int reload = ReloadCounter.current();
+
+	/** Reused for lookups, so that cache hits don't allocate. */
+	private final Key lookupKey = new Key();
+
+	private final IntArrayList recording = new IntArrayList();
+	private boolean isRecording = false;
+
+	/** Returns the cached quad data for the stack, or null if there is none. */
+	int[] get(BakedModel model, Mode transformMode, ItemStack stack) {
+		final int reload = ReloadCounter.current();
+
+		if (reload != this.reload) {
+			// models and sprites are outdated
+			this.reload = reload;
+			entries.clear();
+			cachedInts = 0;
+		}
+
+		return entries.get(lookupKey.set(model, transformMode, stack));
+	}
+
+	/** Starts recording quads for the stack last passed to {@link #get}. */
+	void startRecording() {
+		recording.clear();
+		isRecording = true;
+	}
+
+	boolean isRecording() {
+		return isRecording;
+	}
+
+	/** Called when the model renders something that can't be recorded, such as vanilla quads without a transform. */
+	void abortRecording() {
+		isRecording = false;
+	}
+
+	void record(int[] data, int start) {
+		if (recording.size() + EncodingFormat.TOTAL_STRIDE > MAX_ENTRY_INTS) {
+			isRecording = false;
+		} else {
+			recording.addElements(recording.size(), data, start, EncodingFormat.TOTAL_STRIDE);
+		}
+	}
+
+	/** Stores the recorded quads for the stack last passed to {@link #get}, unless recording was aborted. */
+	void finishRecording() {
+		if (!isRecording) {
+			return;
+		}
+
+		isRecording = false;
+		final int[] data = recording.toIntArray();
+		entries.put(lookupKey.copy(), data);
+		cachedInts += data.length;
+
+		final Iterator<int[]> iterator = entries.values().iterator();
+
+		while (cachedInts > MAX_CACHED_INTS && iterator.hasNext()) {
+			cachedInts -= iterator.next().length;
+			iterator.remove();
+		}
+	}
+
+	private static class Key {
+		private BakedModel model;
+		private Mode transformMode;
+		private Item item;
+		/** The stack's own NBT in lookup keys, a copy in stored keys, as stacks may be modified later. */
+		private NbtCompound nbt;
+		private int nbtHash;
+		private boolean glint;
+
+		Key set(BakedModel model, Mode transformMode, ItemStack stack) {
+			final NbtCompound nbt = stack.getNbt();
+			this.model = model;
+			this.transformMode = transformMode;
+			item = stack.getItem();
+			this.nbt = nbt;
+			nbtHash = nbt == null ? 0 : nbt.hashCode();
+			glint = stack.hasGlint();
+			return this;
+		}
+
+		Key copy() {
+			final Key copy = new Key();
+			copy.model = model;
+			copy.transformMode = transformMode;
+			copy.item = item;
+			copy.nbt = nbt == null ? null : nbt.copy();
+			copy.nbtHash = nbtHash;
+			copy.glint = glint;
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key other)) {
+				return false;
+			}
+
+			// hashes first, as comparing NBT is comparatively slow
+			return model == other.model && transformMode == other.transformMode && item == other.item && nbtHash == other.nbtHash && glint == other.glint
+					&& Objects.equals(nbt, other.nbt);
+		}
+
+		@Override
+		public int hashCode() {
+			int result = System.identityHashCode(model);
+			result = 31 * result + transformMode.hashCode();
+			result = 31 * result + System.identityHashCode(item);
+			result = 31 * result + nbtHash;
+			return 31 * result + (glint ? 1 : 0);
+		}
+	}
+}
@@ -16,9 +16,11 @@
 
 package link.infra.indium.renderer.render;
 
+import link.infra.indium.Indium;
 import link.infra.indium.renderer.IndiumRenderer;
 import link.infra.indium.renderer.RenderMaterialImpl;
 import link.infra.indium.renderer.helper.ColorHelper;
+import link.infra.indium.renderer.helper.SingleThreadRandom;
 import link.infra.indium.renderer.mesh.EncodingFormat;
 import link.infra.indium.renderer.mesh.MeshImpl;
 import link.infra.indium.renderer.mesh.MutableQuadViewImpl;
@@ -30,7 +32,6 @@ import net.fabricmc.fabric.api.renderer.v1.model.ModelHelper;
 import net.minecraft.block.BlockState;
 import net.minecraft.client.color.item.ItemColors;
 import net.minecraft.client.render.*;
-import net.minecraft.client.render.item.ItemRenderer;
 import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.client.render.model.BakedQuad;
 import net.minecraft.client.render.model.json.ModelTransformation;
@@ -61,9 +62,21 @@ public class ItemRenderContext extends MatrixRenderContext {
 	}
 
 	private final ItemColors colorMap;
-	private final Random random = new Random();
+	private final Random random = new SingleThreadRandom();
 	private final Consumer<BakedModel> fallbackConsumer;
 	private final Vec3f normalVec = new Vec3f();
+	private final SpriteEpochSet activeSprites = new SpriteEpochSet();
+	private final GlintConsumerCache glintConsumers = new GlintConsumerCache();
+	private final FallbackQuadCache fallbackQuads = new FallbackQuadCache();
+	/** Null unless {@link Indium#CACHE_ITEM_QUADS} is enabled. */
+	private final ItemQuadCache quadCache = Indium.CACHE_ITEM_QUADS ? new ItemQuadCache() : null;
+	/** Null unless {@link Indium#CACHE_PURE_ITEM_TINTS} is enabled. */
+	private final ItemTintCache tintCache;
+
+	/** Tint colors already resolved in the current render call, by color index. */
+	private final int[] tintIndices = new int[4];
+	private final int[] tintColors = new int[4];
+	private int tintCount;
 
 	private MatrixStack matrixStack;
 	private VertexConsumerProvider vertexConsumerProvider;
@@ -85,6 +98,7 @@ public class ItemRenderContext extends MatrixRenderContext {
 
 	public ItemRenderContext(ItemColors colorMap) {
 		this.colorMap = colorMap;
+		tintCache = Indium.CACHE_PURE_ITEM_TINTS ? new ItemTintCache(colorMap) : null;
 		fallbackConsumer = this::fallbackConsumer;
 	}
 
@@ -97,6 +111,8 @@ public class ItemRenderContext extends MatrixRenderContext {
 		this.transformMode = transformMode;
 		this.vanillaHandler = vanillaHandler;
 		quadBlendMode = BlendMode.DEFAULT;
+		tintCount = 0;
+		activeSprites.resetIfNewFrame();
 		modelVertexConsumer = selectVertexConsumer(RenderLayers.getItemLayer(itemStack, transformMode != ModelTransformation.Mode.GROUND));
 
 		matrixStack.push();
@@ -105,7 +121,20 @@ public class ItemRenderContext extends MatrixRenderContext {
 		matrix = matrixStack.peek().getPositionMatrix();
 		normalMatrix = matrixStack.peek().getNormalMatrix();
 
-		model.emitItemQuads(itemStack, randomSupplier, this);
+		// transforms pushed before the model is rendered aren't part of the cache key
+		if (quadCache != null && !hasTransform()) {
+			final int[] cached = quadCache.get((BakedModel) model, transformMode, itemStack);
+
+			if (cached != null) {
+				renderCached(cached);
+			} else {
+				quadCache.startRecording();
+				model.emitItemQuads(itemStack, randomSupplier, this);
+				quadCache.finishRecording();
+			}
+		} else {
+			model.emitItemQuads(itemStack, randomSupplier, this);
+		}
 
 		matrixStack.pop();
 
@@ -123,7 +152,7 @@ public class ItemRenderContext extends MatrixRenderContext {
 	 */
 	private VertexConsumer selectVertexConsumer(RenderLayer layerIn) {
 		final RenderLayer layer = transformMode == ModelTransformation.Mode.GUI ? TexturedRenderLayers.getEntityTranslucentCull() : layerIn;
-		return ItemRenderer.getArmorGlintConsumer(vertexConsumerProvider, layer, true, itemStack.hasGlint());
+		return glintConsumers.get(vertexConsumerProvider, layer, itemStack.hasGlint());
 	}
 
 	private class Maker extends MutableQuadViewImpl implements QuadEmitter {
@@ -159,7 +188,27 @@ public class ItemRenderContext extends MatrixRenderContext {
 
 	private int indexColor() {
 		final int colorIndex = editorQuad.colorIndex();
-		return colorIndex == -1 ? -1 : (colorMap.getColor(itemStack, colorIndex) | 0xFF000000);
+
+		if (colorIndex == -1) {
+			return -1;
+		}
+
+		// color providers can be slow, so only ask once per color index and render call
+		for (int i = 0; i < tintCount; i++) {
+			if (tintIndices[i] == colorIndex) {
+				return tintColors[i];
+			}
+		}
+
+		final int color = tintCache != null ? tintCache.getColor(itemStack, colorIndex) : (colorMap.getColor(itemStack, colorIndex) | 0xFF000000);
+
+		if (tintCount < tintIndices.length) {
+			tintIndices[tintCount] = colorIndex;
+			tintColors[tintCount] = color;
+			tintCount++;
+		}
+
+		return color;
 	}
 
 	private void renderQuad() {
@@ -171,16 +220,46 @@ public class ItemRenderContext extends MatrixRenderContext {
 
 		final RenderMaterialImpl.Value mat = quad.material();
 		final int quadColor = mat.disableColorIndex(0) ? -1 : indexColor();
-		final int lightmap = mat.emissive(0) ? BaseQuadRenderer.FULL_BRIGHTNESS : this.lightmap;
 
 		for (int i = 0; i < 4; i++) {
 			int c = quad.spriteColor(i, 0);
 			c = ColorHelper.multiplyColor(quadColor, c);
 			quad.spriteColor(i, 0, ColorHelper.swapRedBlueIfNeeded(c));
+		}
+
+		if (quadCache != null && quadCache.isRecording()) {
+			// make sure light face and geometry flags are encoded, as transforms may have changed the geometry
+			quad.geometryFlags();
+			quadCache.record(quad.data(), quad.vertexStart() - EncodingFormat.HEADER_STRIDE);
+		}
+
+		lightAndBufferQuad(quad, mat);
+	}
+
+	private void lightAndBufferQuad(MutableQuadViewImpl quad, RenderMaterialImpl.Value mat) {
+		final int lightmap = mat.emissive(0) ? BaseQuadRenderer.FULL_BRIGHTNESS : this.lightmap;
+
+		for (int i = 0; i < 4; i++) {
 			quad.lightmap(i, ColorHelper.maxBrightness(quad.lightmap(i), lightmap));
 		}
 
-		VertexConsumerQuadBufferer.bufferQuad(quadVertexConsumer(mat.blendMode(0)), quad, matrix, overlay, normalMatrix, normalVec);
+		VertexConsumerQuadBufferer.bufferQuad(quadVertexConsumer(mat.blendMode(0)), quad, matrix, overlay, normalMatrix, normalVec, activeSprites);
+	}
+
+	/** Outputs quads recorded by {@link ItemQuadCache}, which only still need lighting and the matrix transform. */
+	private void renderCached(int[] data) {
+		final MutableQuadViewImpl quad = editorQuad;
+		final int limit = data.length;
+		int index = 0;
+
+		while (index < limit) {
+			System.arraycopy(data, index, quad.data(), 0, EncodingFormat.TOTAL_STRIDE);
+			quad.load();
+			index += EncodingFormat.TOTAL_STRIDE;
+			lightAndBufferQuad(quad, quad.material());
+		}
+
+		quad.clear();
 	}
 
 	/**
@@ -216,7 +295,17 @@ public class ItemRenderContext extends MatrixRenderContext {
 	}
 
 	private void fallbackConsumer(BakedModel model) {
-		if (hasTransform()) {
+		if (hasTransform() && FallbackQuadCache.isCacheable(model)) {
+			// conversion only depends on the model, so only the transform needs to run every time
+			final FallbackQuadCache.Quads quads = fallbackQuads.get(model, random, ITEM_RANDOM_SEED, editorQuad);
+
+			for (int i = 0; i < quads.count; i++) {
+				quads.load(editorQuad, i);
+				renderQuad();
+			}
+
+			editorQuad.clear();
+		} else if (hasTransform()) {
 			// if there's a transform in effect, convert to mesh-based quads so that we can apply it
 			for (int i = 0; i <= ModelHelper.NULL_FACE_ID; i++) {
 				random.setSeed(ITEM_RANDOM_SEED);
@@ -224,6 +313,11 @@ public class ItemRenderContext extends MatrixRenderContext {
 				renderFallbackWithTransform(model.getQuads((BlockState) null, cullFace, random), cullFace);
 			}
 		} else {
+			if (quadCache != null) {
+				// vanilla quads are rendered directly, so there is nothing to record
+				quadCache.abortRecording();
+			}
+
 			vanillaHandler.accept(model, itemStack, lightmap, overlay, matrixStack, modelVertexConsumer);
 		}
 	}
@@ -0,0 +1,98 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Objects;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import link.infra.indium.api.PureItemColorProvider;
+import link.infra.indium.other.AccessItemColors;
+import net.minecraft.client.color.item.ItemColorProvider;
+import net.minecraft.client.color.item.ItemColors;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NbtCompound;
+
+/**
+ * Remembers colors from {@link PureItemColorProvider}s across frames, keyed by item, NBT and tint index.
+ * Colors from other providers are never cached, as they may change from one frame to the next.
+ *
+ * <p>Not thread-safe; each {@link ItemRenderContext} has its own.
+ */
+class ItemTintCache {
+	/** The cache is simply cleared when it grows past this, as entries are cheap to recompute. */
+	private static final int MAX_ENTRIES = 4096;
+	private static final int MISSING = 0;
+
+	private final ItemColors colorMap;
+	private final Object2IntOpenHashMap<Key> colors = new Object2IntOpenHashMap<>();
+	/** Reused for lookups, so that cache hits don't allocate. */
+	private final Key lookupKey = new Key();
+
+	ItemTintCache(ItemColors colorMap) {
+		this.colorMap = colorMap;
+		colors.defaultReturnValue(MISSING);
+	}
+
+	/** Color of the tint index for the stack, with full alpha. */
+	int getColor(ItemStack stack, int colorIndex) {
+		final ItemColorProvider provider = ((AccessItemColors) colorMap).indium$getProvider(stack.getItem());
+
+		if (provider == null) {
+			return -1;
+		} else if (!(provider instanceof PureItemColorProvider)) {
+			return provider.getColor(stack, colorIndex) | 0xFF000000;
+		}
+
+		// colors are stored with full alpha, so they can never be MISSING
+		int color = colors.getInt(lookupKey.set(stack, colorIndex));
+
+		if (color == MISSING) {
+			color = provider.getColor(stack, colorIndex) | 0xFF000000;
+
+			if (colors.size() >= MAX_ENTRIES) {
+				colors.clear();
+			}
+
+			colors.put(lookupKey.copy(), color);
+		}
+
+		return color;
+	}
+
+	private static class Key {
+		private Item item;
+		/** The stack's own NBT in lookup keys, a copy in stored keys, as stacks may be modified later. */
+		private NbtCompound nbt;
+		private int nbtHash;
+		private int colorIndex;
+
+		Key set(ItemStack stack, int colorIndex) {
+			final NbtCompound nbt = stack.getNbt();
+			item = stack.getItem();
+			this.nbt = nbt;
+			nbtHash = nbt == null ? 0 : nbt.hashCode();
+			this.colorIndex = colorIndex;
+			return this;
+		}
+
+		Key copy() {
+			final Key copy = new Key();
+			copy.item = item;
+			copy.nbt = nbt == null ? null : nbt.copy();
+			copy.nbtHash = nbtHash;
+			copy.colorIndex = colorIndex;
+			return copy;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			// hashes first, as comparing NBT is comparatively slow
+			return obj instanceof Key other && item == other.item && nbtHash == other.nbtHash && colorIndex == other.colorIndex
+					&& Objects.equals(nbt, other.nbt);
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(item) * 31 + nbtHash) * 31 + colorIndex;
+		}
+	}
+}
@@ -0,0 +1,140 @@
+package link.infra.indium.renderer.render;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import link.infra.indium.other.SpriteFinderCache;
+import link.infra.indium.renderer.RenderMaterialImpl;
+import link.infra.indium.renderer.mesh.EncodingFormat;
+import link.infra.indium.renderer.mesh.MeshImpl;
+import link.infra.indium.renderer.mesh.QuadViewImpl;
+import net.fabricmc.fabric.api.renderer.v1.material.BlendMode;
+import net.fabricmc.fabric.api.renderer.v1.model.ModelHelper;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.client.render.model.BakedQuad;
+import net.minecraft.client.render.model.json.ModelOverrideList;
+import net.minecraft.client.render.model.json.ModelTransformation;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.util.math.Direction;
+
+/**
+ * Vanilla model holding the quads of a static Fabric mesh, so that Sodium can render it with its own
+ * renderer. Only meshes that use nothing beyond what vanilla quads can express can be lowered; see
+ * {@link #lower(BakedModel, MeshImpl)}. Everything except the quads is delegated to the original model.
+ */
+class LoweredBakedModel implements BakedModel {
+	private final BakedModel wrapped;
+	/** Quads by cull face, in {@link ModelHelper} face index order. */
+	private final List<BakedQuad>[] quads;
+
+	private LoweredBakedModel(BakedModel wrapped, List<BakedQuad>[] quads) {
+		this.wrapped = wrapped;
+		this.quads = quads;
+	}
+
+	/** Lowers the mesh, or returns null if it uses features that vanilla quads can't express. */
+	@SuppressWarnings("unchecked")
+	static LoweredBakedModel lower(BakedModel model, MeshImpl mesh) {
+		final List<BakedQuad>[] quads = new List[ModelHelper.NULL_FACE_ID + 1];
+
+		for (int i = 0; i < quads.length; i++) {
+			quads[i] = new ArrayList<>();
+		}
+
+		final QuadViewImpl quad = new QuadViewImpl();
+		final int[] data = mesh.data();
+
+		for (int index = 0; index < data.length; index += EncodingFormat.TOTAL_STRIDE) {
+			quad.load(data, index);
+
+			if (!isLowerable(quad)) {
+				return null;
+			}
+
+			Sprite sprite = SpriteFinderCache.blockSpriteById(quad.spriteId());
+
+			if (sprite == null) {
+				sprite = SpriteFinderCache.findBlockSprite(quad);
+			}
+
+			final int[] vertexData = new int[EncodingFormat.QUAD_STRIDE];
+			quad.toVanilla(0, vertexData, 0, false);
+			quads[ModelHelper.toFaceIndex(quad.cullFace())].add(new BakedQuad(vertexData, quad.colorIndex(), quad.lightFace(), sprite, quad.hasShade()));
+		}
+
+		return new LoweredBakedModel(model, quads);
+	}
+
+	private static boolean isLowerable(QuadViewImpl quad) {
+		final RenderMaterialImpl.Value mat = quad.material();
+
+		if (mat.blendMode(0) != BlendMode.DEFAULT || mat.emissive(0) || mat.disableAo(0) || mat.disableDiffuse(0)) {
+			return false;
+		}
+
+		if (mat.disableColorIndex(0) && quad.colorIndex() != -1) {
+			return false;
+		}
+
+		// vanilla rendering ignores baked lightmaps and vertex normals
+		if (quad.hasVertexNormals()) {
+			return false;
+		}
+
+		for (int i = 0; i < 4; i++) {
+			if (quad.lightmap(i) != 0) {
+				return false;
+			}
+
+			// vertex colors are copied as-is, but Sodium reads them in a different channel order and ignores them on
+			// tinted quads, so only white is safe
+			if (quad.spriteColor(i, 0) != -1) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	@Override
+	public List<BakedQuad> getQuads(BlockState state, Direction face, Random random) {
+		return quads[ModelHelper.toFaceIndex(face)];
+	}
+
+	@Override
+	public boolean useAmbientOcclusion() {
+		return wrapped.useAmbientOcclusion();
+	}
+
+	@Override
+	public boolean hasDepth() {
+		return wrapped.hasDepth();
+	}
+
+	@Override
+	public boolean isSideLit() {
+		return wrapped.isSideLit();
+	}
+
+	@Override
+	public boolean isBuiltin() {
+		return false;
+	}
+
+	@Override
+	public Sprite getParticleSprite() {
+		return wrapped.getParticleSprite();
+	}
+
+	@Override
+	public ModelTransformation getTransformation() {
+		return wrapped.getTransformation();
+	}
+
+	@Override
+	public ModelOverrideList getOverrides() {
+		return wrapped.getOverrides();
+	}
+}
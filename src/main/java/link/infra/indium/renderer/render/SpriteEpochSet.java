@@ -0,0 +1,73 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Arrays;
+
+import link.infra.indium.other.FrameCounter;
+import link.infra.indium.other.SpriteFinderCache;
+import net.minecraft.client.texture.Sprite;
+
+/**
+ * Tracks which sprites have been registered with Sodium since the last reset, so that each sprite
+ * is registered once per chunk section or frame rather than once per quad.
+ *
+ * <p>Uses the block atlas sprite ids from {@link SpriteFinderCache} to index an array of epoch stamps,
+ * which makes resetting free. Sprites without an id are always reported as new, except when the same
+ * sprite is seen twice in a row.
+ */
+public class SpriteEpochSet {
+	private int[] stamps = new int[256];
+	private int epoch = 1;
+	private int frame;
+	private Sprite lastSprite;
+
+	public void reset() {
+		lastSprite = null;
+
+		if (++epoch == 0) {
+			Arrays.fill(stamps, 0);
+			epoch = 1;
+		}
+	}
+
+	/** Resets if a frame has been rendered since the last call. */
+	public void resetIfNewFrame() {
+		final int frame = FrameCounter.current();
+
+		if (frame != this.frame) {
+			this.frame = frame;
+			reset();
+		}
+	}
+
+	/**
+	 * Returns true if the sprite has not been added since the last reset.
+	 *
+	 * @param spriteId block atlas sprite id of the sprite if known, otherwise -1
+	 */
+	public boolean add(Sprite sprite, int spriteId) {
+		if (sprite == lastSprite) {
+			return false;
+		}
+
+		lastSprite = sprite;
+
+		if (spriteId < 0) {
+			spriteId = SpriteFinderCache.blockSpriteId(sprite);
+
+			if (spriteId < 0) {
+				return true;
+			}
+		}
+
+		if (spriteId >= stamps.length) {
+			stamps = Arrays.copyOf(stamps, Math.max(spriteId + 1, stamps.length * 2));
+		}
+
+		if (stamps[spriteId] == epoch) {
+			return false;
+		}
+
+		stamps[spriteId] = epoch;
+		return true;
+	}
+}
@@ -0,0 +1,182 @@
+package link.infra.indium.renderer.render;
+
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import link.infra.indium.Indium;
+import link.infra.indium.api.StaticBlockModel;
+import link.infra.indium.other.AccessBlockState;
+import link.infra.indium.other.ReloadCounter;
+import link.infra.indium.other.StateIdCounter;
+import link.infra.indium.renderer.mesh.MeshImpl;
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.registry.Registry;
+
+/**
+ * Quads emitted by block models that don't depend on world or position, captured once per block state as a
+ * {@link MeshImpl} so that terrain rendering can replay them without running the model.
+ *
+ * <p>Models implementing {@link StaticBlockModel} are trusted after one capture. With
+ * {@link Indium#MEMOIZE_STATIC_MODELS} enabled, other models are also captured, and are considered static once
+ * {@link #VERIFY_SAMPLES} captures at different positions have come out identical. A single difference marks the
+ * model dynamic for that state until the next resource reload.
+ *
+ * <p>Shared between all terrain build threads.
+ */
+class StaticModelCache {
+	private static final int VERIFY_SAMPLES = 8;
+
+	private static volatile Entry[] entries = new Entry[0];
+	private static volatile int reload = -1;
+	private static volatile int remap = -1;
+
+	/** Number of lowered block states per mod, since the last reload. */
+	private static final Object2IntOpenHashMap<String> loweredByMod = new Object2IntOpenHashMap<>();
+
+	/**
+	 * Entry for the state, or null if the model isn't a candidate. The entry holds a mesh to replay once the
+	 * model is known to be static; until then callers should capture an emission and {@link Entry#offer} it.
+	 */
+	static Entry get(BlockState state, BakedModel model) {
+		if (!Indium.MEMOIZE_STATIC_MODELS && !(model instanceof StaticBlockModel)) {
+			return null;
+		}
+
+		Entry[] entries = StaticModelCache.entries;
+
+		if (reload != ReloadCounter.current() || remap != StateIdCounter.current() || entries.length != Block.STATE_IDS.size()) {
+			entries = reset();
+		}
+
+		final int id = ((AccessBlockState) state).indium$getRawId();
+
+		if (id < 0 || id >= entries.length) {
+			return null;
+		}
+
+		Entry entry = entries[id];
+
+		if (entry == null || entry.model != model) {
+			// a benign race: another thread may replace this, losing only some samples
+			entry = new Entry(model, model instanceof StaticBlockModel ? 1 : VERIFY_SAMPLES);
+			entries[id] = entry;
+		}
+
+		return entry.isDynamic ? null : entry;
+	}
+
+	/**
+	 * Vanilla model with the captured quads of the state's model, if {@link Indium#LOWER_STATIC_MESHES} is enabled,
+	 * the block isn't routed to Indium by {@link Indium#ALWAYS_TESSELATE_INDIUM} or {@link Indium#ROUTE_OVERRIDES}, and the model has been found static and only
+	 * uses features vanilla quads support. Otherwise null.
+	 */
+	static BakedModel lowered(BlockState state, BakedModel model) {
+		final Entry[] entries = StaticModelCache.entries;
+		final int id = ((AccessBlockState) state).indium$getRawId();
+
+		if (id < 0 || id >= entries.length) {
+			return null;
+		}
+
+		final Entry entry = entries[id];
+		return entry == null || entry.model != model ? null : entry.lowered;
+	}
+
+	private static synchronized Entry[] reset() {
+		final int reload = ReloadCounter.current();
+		final int remap = StateIdCounter.current();
+
+		if (StaticModelCache.reload != reload || StaticModelCache.remap != remap || entries.length != Block.STATE_IDS.size()) {
+			logLoweringReport();
+			entries = new Entry[Block.STATE_IDS.size()];
+			StaticModelCache.reload = reload;
+			StaticModelCache.remap = remap;
+		}
+
+		return entries;
+	}
+
+	private static synchronized void countLowered(BlockState state) {
+		final String mod = Registry.BLOCK.getId(state.getBlock()).getNamespace();
+
+		if (loweredByMod.addTo(mod, 1) == 0) {
+			Indium.LOGGER.info("[Indium] Rendering static models from mod '{}' with Sodium's block renderer", mod);
+		}
+	}
+
+	private static void logLoweringReport() {
+		if (loweredByMod.isEmpty()) {
+			return;
+		}
+
+		final StringBuilder report = new StringBuilder("[Indium] Block states with static models rendered by Sodium, by mod:");
+
+		for (Object2IntMap.Entry<String> entry : loweredByMod.object2IntEntrySet()) {
+			report.append("\n  ").append(entry.getKey()).append(": ").append(entry.getIntValue());
+		}
+
+		Indium.LOGGER.info(report.toString());
+		loweredByMod.clear();
+	}
+
+	static class Entry {
+		private final BakedModel model;
+		private final int requiredSamples;
+		private int[] sample;
+		/** Positions sampled so far, as emissions repeated at one position say nothing about other positions. */
+		private final LongOpenHashSet samplePositions = new LongOpenHashSet();
+		private volatile boolean isDynamic;
+		private volatile MeshImpl mesh;
+		private volatile BakedModel lowered;
+
+		private Entry(BakedModel model, int requiredSamples) {
+			this.model = model;
+			this.requiredSamples = requiredSamples;
+		}
+
+		/** The captured quads, or null if the model isn't known to be static yet. */
+		MeshImpl mesh() {
+			return mesh;
+		}
+
+		/**
+		 * Adds the quads captured from one emission. Pass null if the emission couldn't be captured,
+		 * for example because the model used the fallback consumer.
+		 */
+		synchronized void offer(BlockState state, BlockPos pos, int[] data) {
+			if (isDynamic || mesh != null) {
+				return;
+			}
+
+			if (data == null || (sample != null && !Arrays.equals(sample, data))) {
+				isDynamic = true;
+				sample = null;
+				samplePositions.clear();
+				return;
+			}
+
+			sample = data;
+
+			if (samplePositions.add(pos.asLong()) && samplePositions.size() >= requiredSamples) {
+				mesh = new MeshImpl(data);
+				sample = null;
+				samplePositions.clear();
+
+				// blocks explicitly routed to Indium, or all blocks if so configured, stay there
+				if (Indium.LOWER_STATIC_MESHES && !Indium.ALWAYS_TESSELATE_INDIUM && Indium.ROUTE_OVERRIDES.route(state, model) != TriState.TRUE) {
+					lowered = LoweredBakedModel.lower(model, mesh);
+
+					if (lowered != null) {
+						countLowered(state);
+					}
+				}
+			}
+		}
+	}
+}
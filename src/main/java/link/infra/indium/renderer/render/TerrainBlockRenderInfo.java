@@ -18,6 +18,7 @@ package link.infra.indium.renderer.render;
 
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 
@@ -26,8 +27,8 @@ public class TerrainBlockRenderInfo extends BlockRenderInfo {
 	private int cullResultFlags;
 
 	@Override
-	public void prepareForBlock(BlockState blockState, BlockPos blockPos, boolean modelAO) {
-		super.prepareForBlock(blockState, blockPos, modelAO);
+	public void prepareForBlock(BlockState blockState, BlockPos blockPos, BakedModel model) {
+		super.prepareForBlock(blockState, blockPos, model);
 		cullCompletionFlags = 0;
 		cullResultFlags = 0;
 	}
@@ -1,8 +1,10 @@
 package link.infra.indium.renderer.render;
 
+import link.infra.indium.Indium;
 import link.infra.indium.renderer.aocalc.AoCalculator;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.ChunkBuildBuffers;
 import me.jellysquid.mods.sodium.client.render.chunk.compile.buffers.ChunkModelBuilder;
+import me.jellysquid.mods.sodium.client.util.task.CancellationSource;
 import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
 import net.fabricmc.fabric.api.renderer.v1.mesh.QuadEmitter;
 import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
@@ -21,6 +23,9 @@ import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class TerrainRenderContext extends AbstractRenderContext {
+	/** Number of blocks between checks of {@link #cancellationSource}, which is read from another thread. */
+	private static final int CANCELLATION_CHECK_INTERVAL = 8;
+
 	private final TerrainBlockRenderInfo blockInfo = new TerrainBlockRenderInfo();
 	private final ChunkRenderInfo chunkInfo = new ChunkRenderInfo();
 	private final AoCalculator aoCalc = new AoCalculator(blockInfo, chunkInfo::cachedBrightness, chunkInfo::cachedAoLevel);
@@ -28,31 +33,135 @@ public class TerrainRenderContext extends AbstractRenderContext {
 	private Vec3i origin;
 	private Vec3d modelOffset;
 
-	private final BaseMeshConsumer meshConsumer = new BaseMeshConsumer(new QuadBufferer(chunkInfo::getChunkModelBuilder), blockInfo, aoCalc, this::transform);
+	private CancellationSource cancellationSource;
+	private boolean cancelled;
+	private int blocksUntilCancellationCheck;
+
+	/** Set when the model being rendered asks for the fallback consumer. */
+	private boolean usedFallback;
+
+	/** State of observing an emission for {@link ForwardingModelCache}. */
+	private boolean isObservingForwarding;
+	private boolean onlyForwarded;
+	private int forwardCount;
+	private BakedModel forwardedModel;
+
+	/** Fallback consumer handed out while observing, to see which model is passed and with what transform. */
+	private final Consumer<BakedModel> forwardingObserver = new Consumer<>() {
+		@Override
+		public void accept(BakedModel model) {
+			forwardCount++;
+			forwardedModel = model;
+
+			if (hasTransform()) {
+				onlyForwarded = false;
+			}
+
+			fallbackConsumer.accept(model);
+		}
+	};
+
+	/** Neighborhood of the current block, for {@link BlockOutputCache}. Null when the cache is disabled. */
+	private final int[] fingerprint = Indium.CACHE_BLOCK_OUTPUT ? new int[BlockOutputCache.FINGERPRINT_SIZE] : null;
+	private final BlockPos.Mutable fingerprintPos = new BlockPos.Mutable();
+
+	/** Shared by both consumers so that vertices are flushed once per block. */
+	private final QuadBufferer quadBufferer = new QuadBufferer(chunkInfo::getChunkModelBuilder);
 
-	private final BaseFallbackConsumer fallbackConsumer = new BaseFallbackConsumer(new QuadBufferer(chunkInfo::getChunkModelBuilder), blockInfo, aoCalc, this::transform);
+	private final BaseMeshConsumer meshConsumer = new BaseMeshConsumer(quadBufferer, blockInfo, aoCalc, this::transform);
+
+	private final BaseFallbackConsumer fallbackConsumer = new BaseFallbackConsumer(quadBufferer, blockInfo, aoCalc, this::transform);
 
 	public TerrainRenderContext prepare(BlockRenderView blockView, ChunkBuildBuffers buffers) {
+		return prepare(blockView, buffers, null);
+	}
+
+	/**
+	 * Like {@link #prepare(BlockRenderView, ChunkBuildBuffers)}, but stops tesselating blocks once the build is
+	 * cancelled. The section's output is discarded by then, so skipping the remaining blocks loses nothing.
+	 */
+	public TerrainRenderContext prepare(BlockRenderView blockView, ChunkBuildBuffers buffers, CancellationSource cancellationSource) {
+		this.cancellationSource = cancellationSource;
+		cancelled = false;
+		blocksUntilCancellationCheck = 0;
 		blockInfo.setBlockView(blockView);
 		chunkInfo.prepare(blockView, buffers);
+		quadBufferer.prepare();
+
+		if (fingerprint != null) {
+			BlockOutputCache.validate(blockInfo.routes, blockInfo.aoEnabled);
+		}
+
 		return this;
 	}
 
+	/** Routing decisions for the chunk section being built. Only valid between {@link #prepare} and {@link #release}. */
+	public BlockRouteTable routes() {
+		return blockInfo.routes;
+	}
+
+	/**
+	 * Model for Sodium's block renderer to render instead, if the model was found to only forward to another model
+	 * through the fallback consumer, or its quads were found static and simple enough. Otherwise null.
+	 */
+	public BakedModel loweredModel(BlockState state, BakedModel model) {
+		final BakedModel forwarded = ForwardingModelCache.forwarded(state, model);
+		return forwarded != null ? forwarded : StaticModelCache.lowered(state, model);
+	}
+
 	public void release() {
+		cancellationSource = null;
 		blockInfo.release();
 		chunkInfo.release();
 	}
 
 	/** Called from chunk renderer hook. */
 	public boolean tesselateBlock(BlockState blockState, BlockPos blockPos, BlockPos origin, final BakedModel model, Vec3d modelOffset) {
+		if (isCancelled()) {
+			return false;
+		}
+
 		this.origin = origin;
 		this.modelOffset = modelOffset;
 
 		try {
 			chunkInfo.didOutput = false;
 			aoCalc.clear();
-			blockInfo.prepareForBlock(blockState, blockPos, model.useAmbientOcclusion());
-			((FabricBakedModel) model).emitBlockQuads(blockInfo.blockView, blockInfo.blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+			blockInfo.prepareForBlock(blockState, blockPos, model);
+
+			if (fingerprint != null) {
+				BlockOutputCache.fingerprint(chunkInfo, blockPos, fingerprintPos, fingerprint);
+				final BlockOutputCache.Entry output = BlockOutputCache.get(blockPos, fingerprint);
+
+				if (output != null) {
+					quadBufferer.replay(output);
+					quadBufferer.flush();
+					return chunkInfo.didOutput;
+				}
+
+				quadBufferer.startRecording();
+			}
+
+			final StaticModelCache.Entry staticModel = StaticModelCache.get(blockState, model);
+
+			if (staticModel == null) {
+				emitBlockQuads(model);
+			} else if (staticModel.mesh() != null) {
+				// no transforms are pushed outside of model emission, so replayed quads aren't transformed again
+				meshConsumer.accept(staticModel.mesh());
+			} else {
+				meshConsumer.startCapture();
+				usedFallback = false;
+				emitBlockQuads(model);
+				final int[] captured = meshConsumer.finishCapture();
+				staticModel.offer(blockState, blockPos, usedFallback ? null : captured);
+			}
+
+			quadBufferer.flush();
+
+			if (fingerprint != null) {
+				BlockOutputCache.put(blockPos, quadBufferer.finishRecording(fingerprint.clone()));
+			}
 		} catch (Throwable throwable) {
 			CrashReport crashReport = CrashReport.create(throwable, "Tesselating block in world - Indium Renderer");
 			CrashReportSection crashReportSection = crashReport.addElement("Block being tesselated");
@@ -63,6 +172,42 @@ public class TerrainRenderContext extends AbstractRenderContext {
 		return chunkInfo.didOutput;
 	}
 
+	private void emitBlockQuads(BakedModel model) {
+		final ForwardingModelCache.Entry forwarding = ForwardingModelCache.get(blockInfo.blockState, model);
+
+		if (forwarding == null) {
+			((FabricBakedModel) model).emitBlockQuads(blockInfo.blockView, blockInfo.blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+			return;
+		}
+
+		isObservingForwarding = true;
+		onlyForwarded = true;
+		forwardCount = 0;
+		forwardedModel = null;
+
+		try {
+			((FabricBakedModel) model).emitBlockQuads(blockInfo.blockView, blockInfo.blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+		} finally {
+			isObservingForwarding = false;
+		}
+
+		forwarding.offer(blockInfo.blockPos, onlyForwarded && forwardCount == 1 ? forwardedModel : null);
+		forwardedModel = null;
+	}
+
+	private boolean isCancelled() {
+		if (cancelled || cancellationSource == null) {
+			return cancelled;
+		}
+
+		if (--blocksUntilCancellationCheck <= 0) {
+			blocksUntilCancellationCheck = CANCELLATION_CHECK_INTERVAL;
+			cancelled = cancellationSource.isCancelled();
+		}
+
+		return cancelled;
+	}
+
 	private class QuadBufferer extends ChunkQuadBufferer {
 		QuadBufferer(Function<RenderLayer, ChunkModelBuilder> builderFunc) {
 			super(builderFunc);
@@ -81,16 +226,20 @@ public class TerrainRenderContext extends AbstractRenderContext {
 
 	@Override
 	public Consumer<Mesh> meshConsumer() {
+		onlyForwarded = false;
 		return meshConsumer;
 	}
 
 	@Override
 	public Consumer<BakedModel> fallbackConsumer() {
-		return fallbackConsumer;
+		// fallback quads are lit differently from mesh quads, so they can't be replayed as a mesh
+		usedFallback = true;
+		return isObservingForwarding ? forwardingObserver : fallbackConsumer;
 	}
 
 	@Override
 	public QuadEmitter getEmitter() {
+		onlyForwarded = false;
 		return meshConsumer.getEmitter();
 	}
 }
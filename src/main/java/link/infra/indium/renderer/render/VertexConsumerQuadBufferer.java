@@ -15,6 +15,8 @@ import net.minecraft.util.math.Vec3f;
 public abstract class VertexConsumerQuadBufferer implements BaseQuadRenderer.QuadBufferer {
 	protected final Function<RenderLayer, VertexConsumer> bufferFunc;
 	protected final Vec3f normalVec = new Vec3f();
+	/** Sprites already marked active this frame. */
+	protected final SpriteEpochSet activeSprites = new SpriteEpochSet();
 
 	protected abstract Matrix4f matrix();
 
@@ -28,10 +30,15 @@ public abstract class VertexConsumerQuadBufferer implements BaseQuadRenderer.Qua
 
 	@Override
 	public void bufferQuad(MutableQuadViewImpl quad, RenderLayer renderLayer) {
-		bufferQuad(bufferFunc.apply(renderLayer), quad, matrix(), overlay(), normalMatrix(), normalVec);
+		activeSprites.resetIfNewFrame();
+		bufferQuad(bufferFunc.apply(renderLayer), quad, matrix(), overlay(), normalMatrix(), normalVec, activeSprites);
 	}
 
-	public static void bufferQuad(VertexConsumer buff, MutableQuadViewImpl quad, Matrix4f matrix, int overlay, Matrix3f normalMatrix, Vec3f normalVec) {
+	/**
+	 * Buffers the quad and marks its sprite active for animation. Callers are responsible for resetting
+	 * {@code activeSprites} each frame, see {@link SpriteEpochSet#resetIfNewFrame()}.
+	 */
+	public static void bufferQuad(VertexConsumer buff, MutableQuadViewImpl quad, Matrix4f matrix, int overlay, Matrix3f normalMatrix, Vec3f normalVec, SpriteEpochSet activeSprites) {
 		final boolean useNormals = quad.hasVertexNormals();
 
 		if (useNormals) {
@@ -62,9 +69,11 @@ public abstract class VertexConsumerQuadBufferer implements BaseQuadRenderer.Qua
 		Sprite sprite = quad.cachedSprite();
 
 		if (sprite == null) {
-			sprite = SpriteFinderCache.forBlockAtlas().find(quad, 0);
+			sprite = SpriteFinderCache.findBlockSprite(quad);
 		}
 
-		SpriteUtil.markSpriteActive(sprite);
+		if (activeSprites.add(sprite, quad.spriteId())) {
+			SpriteUtil.markSpriteActive(sprite);
+		}
 	}
 }
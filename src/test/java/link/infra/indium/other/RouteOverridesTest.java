@@ -0,0 +1,57 @@
+package link.infra.indium.other;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.fabric.api.util.TriState;
+import net.minecraft.util.Identifier;
+
+class RouteOverridesTest {
+	private static class BaseModel { }
+
+	private static class WrappingModel extends BaseModel { }
+
+	private static class OtherModel { }
+
+	@Test
+	void parsesBlockIdNamespaceAndClassEntries() {
+		final RouteOverrides overrides = RouteOverrides.parse(List.of(
+				"# Indium routing overrides",
+				"minecraft:stone=sodium",
+				"create = indium",
+				"class:" + BaseModel.class.getName() + "=indium"));
+
+		assertEquals(TriState.FALSE, overrides.route(new Identifier("minecraft", "stone"), OtherModel.class));
+		assertEquals(TriState.TRUE, overrides.route(new Identifier("create", "shaft"), OtherModel.class));
+		assertEquals(TriState.TRUE, overrides.route(new Identifier("minecraft", "dirt"), BaseModel.class));
+		assertEquals(TriState.DEFAULT, overrides.route(new Identifier("minecraft", "dirt"), OtherModel.class));
+	}
+
+	@Test
+	void appliesPrecedence() {
+		final RouteOverrides overrides = RouteOverrides.parse(List.of(
+				"minecraft=indium",
+				"class:" + BaseModel.class.getName() + "=auto",
+				"minecraft:stone=sodium"));
+
+		// block ids win over model classes, which win over namespaces, and superclasses match
+		assertEquals(TriState.FALSE, overrides.route(new Identifier("minecraft", "stone"), WrappingModel.class));
+		assertEquals(TriState.DEFAULT, overrides.route(new Identifier("minecraft", "dirt"), WrappingModel.class));
+		assertEquals(TriState.TRUE, overrides.route(new Identifier("minecraft", "dirt"), OtherModel.class));
+	}
+
+	@Test
+	void ignoresCommentsAndInvalidLines() {
+		final RouteOverrides overrides = RouteOverrides.parse(List.of(
+				"",
+				"# minecraft:stone=sodium",
+				"minecraft:dirt",
+				"minecraft:grass_block=vanilla"));
+
+		assertTrue(overrides.isEmpty());
+	}
+}
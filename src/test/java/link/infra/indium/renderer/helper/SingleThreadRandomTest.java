@@ -0,0 +1,155 @@
+package link.infra.indium.renderer.helper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class SingleThreadRandomTest {
+	private static final long[] SEEDS = { 0L, 1L, -1L, 42L, 0x5DEECE66DL, Long.MIN_VALUE, Long.MAX_VALUE, 3131796452947858211L };
+	private static final int STEPS = 1000;
+
+	private static SingleThreadRandom seeded(long seed) {
+		final SingleThreadRandom random = new SingleThreadRandom();
+		random.setSeed(seed);
+		return random;
+	}
+
+	@Test
+	void nextIntMatches() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextInt(), actual.nextInt());
+			}
+		}
+	}
+
+	@Test
+	void nextIntBoundedMatches() {
+		// powers of two take a different path than other bounds
+		final int[] bounds = { 1, 2, 7, 16, 100, 1 << 30, Integer.MAX_VALUE };
+
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				final int bound = bounds[i % bounds.length];
+				assertEquals(expected.nextInt(bound), actual.nextInt(bound));
+			}
+		}
+	}
+
+	@Test
+	void nextLongMatches() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextLong(), actual.nextLong());
+			}
+		}
+	}
+
+	@Test
+	void nextFloatMatches() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextFloat(), actual.nextFloat());
+			}
+		}
+	}
+
+	@Test
+	void nextDoubleMatches() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextDouble(), actual.nextDouble());
+			}
+		}
+	}
+
+	@Test
+	void nextGaussianMatches() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextGaussian(), actual.nextGaussian());
+			}
+		}
+	}
+
+	@Test
+	void mixedCallsMatch() {
+		for (long seed : SEEDS) {
+			final Random expected = new Random(seed);
+			final Random actual = seeded(seed);
+
+			for (int i = 0; i < STEPS; i++) {
+				assertEquals(expected.nextInt(), actual.nextInt());
+				assertEquals(expected.nextGaussian(), actual.nextGaussian());
+				assertEquals(expected.nextInt(10), actual.nextInt(10));
+				assertEquals(expected.nextLong(), actual.nextLong());
+				assertEquals(expected.nextFloat(), actual.nextFloat());
+				assertEquals(expected.nextDouble(), actual.nextDouble());
+			}
+		}
+	}
+
+	@Test
+	void setSeedRestartsSequence() {
+		final Random expected = new Random();
+		final Random actual = new SingleThreadRandom();
+
+		for (long seed : SEEDS) {
+			expected.setSeed(seed);
+			actual.setSeed(seed);
+
+			for (int i = 0; i < 10; i++) {
+				assertEquals(expected.nextLong(), actual.nextLong());
+			}
+		}
+	}
+
+	@Test
+	void setSeedDiscardsCachedGaussian() {
+		final Random expected = new Random();
+		final Random actual = new SingleThreadRandom();
+
+		for (long seed : SEEDS) {
+			expected.setSeed(seed);
+			actual.setSeed(seed);
+
+			// an odd number of calls leaves the second value of a pair cached, which reseeding must discard
+			assertEquals(expected.nextGaussian(), actual.nextGaussian());
+
+			expected.setSeed(seed);
+			actual.setSeed(seed);
+			assertEquals(expected.nextGaussian(), actual.nextGaussian());
+			assertEquals(expected.nextGaussian(), actual.nextGaussian());
+		}
+	}
+
+	@Test
+	void defaultConstructorMatchesSeedZero() {
+		final Random expected = new Random(0L);
+		final Random actual = new SingleThreadRandom();
+
+		for (int i = 0; i < STEPS; i++) {
+			assertEquals(expected.nextInt(), actual.nextInt());
+		}
+	}
+}